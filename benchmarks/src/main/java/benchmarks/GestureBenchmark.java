@@ -0,0 +1,73 @@
+package benchmarks;
+
+import enums.Directions;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+import pages.gestures.GestureEngine;
+import pages.gestures.Swipe;
+import pages.hierarchy.HierarchyCache;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a swipe built from scratch on every call, with a window size query, against a swipe compiled once by
+ * the gesture engine and sent as a cached payload.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GestureBenchmark {
+    private AppiumDriver driver;
+    private GestureEngine gestureEngine;
+
+    @Setup
+    public void setup() {
+        driver = StubDriver.create();
+        gestureEngine = new GestureEngine(driver, HierarchyCache.of(driver));
+    }
+
+    @Benchmark
+    public Sequence buildSwipeSequence() {
+        return swipeSequence(new Dimension(1080, 2280));
+    }
+
+    @Benchmark
+    public void performSwipe() {
+        Dimension dimension = driver.manage().window().getSize();
+        driver.perform(Collections.singleton(swipeSequence(dimension)));
+    }
+
+    @Benchmark
+    public void performCompiledSwipe() {
+        gestureEngine.perform(Swipe.of(Directions.DOWN));
+    }
+
+    private static Sequence swipeSequence(Dimension dimension) {
+        int startX = dimension.getWidth() / 2;
+        int startY = dimension.getHeight() / 2;
+
+        PointerInput pointerInput = new PointerInput(PointerInput.Kind.TOUCH, "pointerInput");
+        return new Sequence(pointerInput, 1)
+                .addAction(pointerInput.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY))
+                .addAction(pointerInput.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                .addAction(pointerInput.createPointerMove(Duration.ofMillis(100), PointerInput.Origin.viewport(), startX, (int) (dimension.getHeight() * 0.25)))
+                .addAction(pointerInput.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AppiumFieldDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.support.PageFactory;
+import pages.authentication.AuthenticationPage;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building page objects: the reflective field decoration of PageFactory with the Appium decorator,
+ * alone and as part of the page constructor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageObjectBenchmark {
+    private AppiumDriver driver;
+    private AuthenticationPage page;
+
+    @Setup
+    public void setup() {
+        driver = StubDriver.create();
+        page = new AuthenticationPage(driver);
+    }
+
+    @Benchmark
+    public AuthenticationPage createAuthenticationPage() {
+        return new AuthenticationPage(driver);
+    }
+
+    @Benchmark
+    public AuthenticationPage initElementsWithAppiumDecorator() {
+        PageFactory.initElements(new AppiumFieldDecorator(driver, Duration.ZERO), page);
+        return page;
+    }
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs every benchmark and compares the average times with the stored baseline. The process exits with a non-zero
+ * status, which fails the Maven build, if a benchmark got slower than the baseline by more than the tolerance, if a
+ * benchmark of the baseline has no result, or if there is no baseline to compare with. With
+ * `-Dbenchmark.updateBaseline=true` the results are stored as the new baseline instead.
+ * <p>
+ * The baseline records the machine and the JDK it was measured on next to the scores. Scores only compare on the
+ * same environment, a run on a different one is reported before the comparison.
+ */
+public class RegressionGate {
+    private static final Json JSON = new Json();
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        Path baselineFile = Path.of(System.getProperty("benchmark.baseline", "baseline.json"));
+        Path resultsFile = Path.of(System.getProperty("benchmark.results", "target/jmh-results.json"));
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.25"));
+        boolean updateBaseline = Boolean.parseBoolean(System.getProperty("benchmark.updateBaseline", "false"));
+
+        if (!updateBaseline && !Files.exists(baselineFile)) {
+            fail("No baseline at " + baselineFile + " to compare with, store one with -Dbenchmark.updateBaseline=true.");
+        }
+
+        if (resultsFile.getParent() != null) Files.createDirectories(resultsFile.getParent());
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include("benchmarks\\..*Benchmark")
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultsFile.toString())
+                .build()).run();
+
+        Map<String, Double> scores = new TreeMap<>();
+        for (RunResult result : results) {
+            scores.put(result.getParams().getBenchmark(), result.getPrimaryResult().getScore());
+        }
+        // a benchmark that fails has no result, JMH itself carries on
+        if (scores.isEmpty()) fail("No benchmark produced a result, see the failures above.");
+
+        Map<String, String> environment = environment();
+        if (updateBaseline) {
+            Files.writeString(baselineFile, JSON.toJson(new TreeMap<>(Map.of("environment", environment, "scores", scores))));
+            System.out.println("Stored " + scores.size() + " benchmark scores measured on " + environment + " as the baseline in " + baselineFile);
+            return;
+        }
+
+        Map<String, Object> baselineFileContent = JSON.toType(Files.readString(baselineFile), Json.MAP_TYPE);
+        if (!(baselineFileContent.get("scores") instanceof Map<?, ?> baseline)) {
+            fail("The baseline at " + baselineFile + " has no scores, store one with -Dbenchmark.updateBaseline=true.");
+            return;
+        }
+        Object baselineEnvironment = baselineFileContent.get("environment");
+        if (!environment.equals(baselineEnvironment)) {
+            System.out.println("ENVIRONMENT the baseline was measured on " + baselineEnvironment + ", this run is on " + environment
+                    + ", store a baseline on this machine for a meaningful comparison");
+        }
+
+        int regressions = 0;
+        for (Object benchmark : new TreeMap<>(baseline).keySet()) {
+            if (scores.containsKey(benchmark)) continue;
+            regressions++;
+            System.out.println("MISSING    " + benchmark + " has no result");
+        }
+        for (Map.Entry<String, Double> score : scores.entrySet()) {
+            Object baselineScore = baseline.get(score.getKey());
+            if (!(baselineScore instanceof Number number)) {
+                System.out.println("NEW        " + score.getKey() + " " + format(score.getValue()));
+                continue;
+            }
+
+            double limit = number.doubleValue() * (1 + tolerance);
+            boolean regressed = score.getValue() > limit;
+            if (regressed) regressions++;
+            System.out.println((regressed ? "REGRESSION " : "OK         ") + score.getKey() + " "
+                    + format(score.getValue()) + " (baseline " + format(number.doubleValue()) + ", limit " + format(limit) + ")");
+        }
+
+        if (regressions > 0) {
+            fail(regressions + " benchmark(s) regressed by more than " + Math.round(tolerance * 100) + "% against the baseline or have no result.");
+        }
+    }
+
+    /**
+     * Describes the machine and the JDK the benchmarks run on, the forked benchmark JVMs use the same JDK.
+     */
+    static Map<String, String> environment() {
+        Map<String, String> environment = new TreeMap<>();
+        environment.put("cpu", cpuModel());
+        environment.put("cpus", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("jdk", System.getProperty("java.vm.vendor") + " " + System.getProperty("java.runtime.version"));
+        return environment;
+    }
+
+    private static String cpuModel() {
+        try {
+            List<String> cpuInfo = Files.readAllLines(Path.of("/proc/cpuinfo"));
+            for (String line : cpuInfo) {
+                if (line.startsWith("model name")) return line.substring(line.indexOf(':') + 1).trim();
+            }
+        } catch (IOException e) {
+            // not Linux
+        }
+        return System.getProperty("os.arch");
+    }
+
+    private static void fail(String message) {
+        System.out.println(message);
+        System.exit(1);
+    }
+
+    private static String format(double microseconds) {
+        return String.format("%.3f us/op", microseconds);
+    }
+}
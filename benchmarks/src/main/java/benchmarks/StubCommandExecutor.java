@@ -0,0 +1,78 @@
+package benchmarks;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers driver commands in-process, so the benchmarks measure the framework and not a device.
+ * Command parameters are still serialized to JSON to keep the client-side encoding cost in the numbers.
+ * Every element is found, displayed and enabled, except for locators that mention `missing`.
+ */
+public class StubCommandExecutor extends AppiumCommandExecutor {
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final String SESSION_ID = "stub-session";
+    private static final Json JSON = new Json();
+
+    private final String pageSource = readResource("login-screen.xml");
+
+    public StubCommandExecutor() throws MalformedURLException {
+        super(MobileCommand.commandRepository, URI.create("http://127.0.0.1:1").toURL());
+    }
+
+    @Override
+    public Response execute(Command command) {
+        JSON.toJson(command.getParameters());
+
+        Response response = new Response();
+        response.setSessionId(SESSION_ID);
+        response.setState("success");
+        response.setValue(valueOf(command));
+        return response;
+    }
+
+    private Object valueOf(Command command) {
+        return switch (command.getName()) {
+            case DriverCommand.NEW_SESSION -> Map.of(
+                    "platformName", "Android",
+                    "appium:automationName", "UiAutomator2");
+            case DriverCommand.FIND_ELEMENT, DriverCommand.FIND_CHILD_ELEMENT -> element(command);
+            case DriverCommand.FIND_ELEMENTS, DriverCommand.FIND_CHILD_ELEMENTS -> List.of(element(command));
+            case DriverCommand.IS_ELEMENT_DISPLAYED, DriverCommand.IS_ELEMENT_ENABLED -> true;
+            case DriverCommand.GET_ELEMENT_TEXT -> "standard_user";
+            case DriverCommand.GET_PAGE_SOURCE -> pageSource;
+            case DriverCommand.GET_CURRENT_WINDOW_SIZE ->
+                    Map.of("x", 0, "y", 0, "width", 1080, "height", 2280);
+            default -> null;
+        };
+    }
+
+    private static Map<String, String> element(Command command) {
+        String locator = String.valueOf(command.getParameters().get("value"));
+        if (locator.contains("missing")) throw new NoSuchElementException("No element matches " + locator);
+
+        return Map.of(ELEMENT_KEY, "element-" + Integer.toHexString(locator.hashCode()));
+    }
+
+    private static String readResource(String name) {
+        try (InputStream inputStream = StubCommandExecutor.class.getClassLoader().getResourceAsStream(name)) {
+            if (inputStream == null) throw new IllegalStateException("Missing benchmark resource " + name);
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package benchmarks;
+
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+
+import java.net.MalformedURLException;
+
+/**
+ * Creates drivers backed by the in-process {@link StubCommandExecutor}.
+ */
+public class StubDriver {
+
+    private StubDriver() {
+    }
+
+    public static AppiumDriver create() {
+        try {
+            return new AppiumDriver(new StubCommandExecutor(), new UiAutomator2Options());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
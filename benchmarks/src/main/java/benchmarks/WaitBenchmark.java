@@ -0,0 +1,61 @@
+package benchmarks;
+
+import core.waits.WaitEngine;
+import io.appium.java_client.AppiumDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import pages.authentication.AuthenticationPage;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the waiting and retry machinery around a single element read, with an element that is found at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitBenchmark {
+    private AppiumDriver driver;
+    private AuthenticationPage page;
+
+    @Setup
+    public void setup() {
+        driver = StubDriver.create();
+        page = new AuthenticationPage(driver);
+    }
+
+    @Benchmark
+    public WebDriverWait createWebDriverWait() {
+        return new WebDriverWait(driver, Duration.ofSeconds(10));
+    }
+
+    @Benchmark
+    public WaitEngine createWaitEngine() {
+        return new WaitEngine(driver);
+    }
+
+    @Benchmark
+    public String getTextThroughRetryLoop() {
+        // accessibility locator, goes through the wait engine and the stale element retry loop
+        return page.getUsernameFieldText();
+    }
+
+    @Benchmark
+    public String getTextFromHierarchyCache() {
+        // xpath locator, answered from the cached UI hierarchy
+        return page.getErrorMessageText();
+    }
+}
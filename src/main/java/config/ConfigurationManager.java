@@ -1,35 +1,346 @@
 package config;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The configuration of the framework, loaded once per JVM from layered sources where each layer overrides the
+ * previous ones:
+ * <ol>
+ *     <li>the defaults, `config/defaults.properties` on the classpath, which lists every key</li>
+ *     <li>the profile, `config/&lt;profile&gt;.properties` on the classpath, picked with the `profile` key</li>
+ *     <li>the properties file given by the `config.file` key</li>
+ *     <li>environment variables named after the keys, `wait.timeoutSeconds` is read from `WAIT_TIMEOUT_SECONDS`</li>
+ *     <li>system properties named like the keys</li>
+ * </ol>
+ * An instance is an immutable snapshot of the merged values. Profiles and files may only set keys the defaults list,
+ * environment variables and system properties are only read for those keys.
+ */
 public class ConfigurationManager {
-    private final String STANDARD_USER;
-    private final String PROBLEM_USER;
-    private final String LOCKED_OUT_USER;
-    private final String PASSWORD;
-
-    public ConfigurationManager() {
-        this.STANDARD_USER = System.getenv("STANDARD_USER");
-        this.PROBLEM_USER = System.getenv("PROBLEM_USER");
-        this.PASSWORD = System.getenv("PASSWORD");
-        this.LOCKED_OUT_USER = System.getenv("LOCKED_OUT_USER");
-
-        if (this.STANDARD_USER == null || this.PROBLEM_USER == null || this.PASSWORD == null || this.LOCKED_OUT_USER == null) {
-            throw new IllegalStateException("One or more environment variables are not set.");
+    private static final String DEFAULTS_RESOURCE = "config/defaults.properties";
+    private static final String PROFILE_KEY = "profile";
+    private static final String CONFIG_FILE_KEY = "config.file";
+
+    private static final ConfigurationManager INSTANCE = load(System.getenv(), System.getProperties());
+
+    private final Map<String, String> values;
+
+    private ConfigurationManager(Map<String, String> values) {
+        this.values = Map.copyOf(values);
+    }
+
+    /**
+     * Returns the configuration of the JVM, loaded on first use.
+     */
+    public static ConfigurationManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads the configuration from the layered sources.
+     *
+     * @param environment      the environment variables
+     * @param systemProperties the system properties
+     * @return the configuration snapshot
+     */
+    public static ConfigurationManager load(Map<String, String> environment, Properties systemProperties) {
+        Map<String, String> values = new HashMap<>();
+        readResource(DEFAULTS_RESOURCE).forEach((key, value) -> values.put((String) key, (String) value));
+
+        String profile = override(PROFILE_KEY, environment, systemProperties);
+        if (profile != null) merge(values, readResource("config/" + profile + ".properties"));
+
+        String configFile = override(CONFIG_FILE_KEY, environment, systemProperties);
+        if (configFile != null) merge(values, readFile(Path.of(configFile)));
+
+        for (String key : values.keySet()) {
+            String value = override(key, environment, systemProperties);
+            if (value != null) values.put(key, value);
         }
+        return new ConfigurationManager(values);
     }
 
+    /**
+     * Returns a snapshot with some values replaced, the current snapshot is left untouched.
+     *
+     * @param overrides the values to replace
+     */
+    public ConfigurationManager withOverrides(Map<String, String> overrides) {
+        Map<String, String> merged = new HashMap<>(values);
+        merged.putAll(overrides);
+        return new ConfigurationManager(merged);
+    }
+
+    // # credentials
     public String getStandardUser() {
-        return STANDARD_USER;
+        return getString("standard.user");
     }
 
     public String getProblemUser() {
-        return PROBLEM_USER;
+        return getString("problem.user");
     }
 
     public String getPassword() {
-        return PASSWORD;
+        return getString("password");
     }
 
     public String getLockedOutUser() {
-        return LOCKED_OUT_USER;
+        return getString("locked.out.user");
+    }
+
+    // # app under test
+    public Path getApkPath() {
+        return Path.of(getString("app.apk"));
+    }
+
+    public String getAppPackage() {
+        return getString("app.package");
+    }
+
+    public String getAppActivity() {
+        return getString("app.activity");
+    }
+
+    // # devices
+    /**
+     * Returns the inline device list, empty if the devices are listed in a file instead.
+     */
+    public List<String> getDevices() {
+        return getList("devices", ";");
+    }
+
+    /**
+     * Returns the devices file, null if it's not set.
+     */
+    public Path getDevicesFile() {
+        return isSet("devices.file") ? Path.of(getString("devices.file")) : null;
+    }
+
+    public long getDeviceAcquireTimeoutMinutes() {
+        return getLong("devices.acquireTimeoutMinutes");
+    }
+
+    public boolean isProvisioningEnabled() {
+        return getBoolean("provisioning.enabled");
+    }
+
+    public boolean isProvisioningWarmUpEnabled() {
+        return getBoolean("provisioning.warmUp");
+    }
+
+    public Path getProvisioningFile() {
+        return Path.of(getString("provisioning.file"));
+    }
+
+    public String getPoolResetStrategy() {
+        return getString("pool.resetStrategy");
+    }
+
+    // # waits
+    public Duration getWaitTimeout() {
+        return Duration.ofSeconds(getLong("wait.timeoutSeconds"));
+    }
+
+    public Duration getPollingInterval() {
+        return Duration.ofMillis(getLong("wait.pollingMillis"));
+    }
+
+    public Duration getMinPollingInterval() {
+        return Duration.ofMillis(getLong("wait.minPollingMillis"));
+    }
+
+    public Duration getMaxPollingInterval() {
+        return Duration.ofMillis(getLong("wait.maxPollingMillis"));
+    }
+
+    public String getWaitMode() {
+        return getString("wait.mode");
+    }
+
+    public List<String> getLogcatTags() {
+        return getList("wait.events.logcatTags", ",");
+    }
+
+    // # retry budgets
+    public int getStaleElementAttempts() {
+        return getInt("retry.staleElementAttempts");
+    }
+
+    public long getRetryBackoffMillis() {
+        return getLong("retry.backoffMillis");
+    }
+
+    // # scrolling
+    public int getMaxScrolls() {
+        return getInt("scroll.maxScrolls");
+    }
+
+    public int getMaxSwipes() {
+        return getInt("scroll.maxSwipes");
+    }
+
+    // # text entry
+    public boolean isAdbInputAllowed() {
+        return getBoolean("text.adbInput");
+    }
+
+    // # reports
+    public Path getMetricsFile() {
+        return Path.of(getString("metrics.file"));
+    }
+
+    public boolean isMetricsSummaryEnabled() {
+        return getBoolean("metrics.summary");
+    }
+
+    public Path getArtifactsDirectory() {
+        return Path.of(getString("artifacts.dir"));
+    }
+
+    public int getArtifactWorkers() {
+        return getInt("artifacts.workers");
+    }
+
+    public int getArtifactQueueCapacity() {
+        return getInt("artifacts.queueCapacity");
+    }
+
+    public Path getEventsFile() {
+        return Path.of(getString("events.file"));
+    }
+
+    public Duration getThroughputWindow() {
+        return Duration.ofSeconds(getLong("events.throughputWindowSeconds"));
+    }
+
+    // # test execution
+    public String getTestOrder() {
+        return getString("test.order");
+    }
+
+    public Path getTestHistoryFile() {
+        return Path.of(getString("test.history.file"));
+    }
+
+    /**
+     * Returns the explicitly listed changed files, empty if they're not listed.
+     */
+    public List<String> getImpactChanged() {
+        return getList("impact.changed", ",");
+    }
+
+    /**
+     * Returns the git ref the changed files are computed against, null if it's not set.
+     */
+    public String getImpactBaseRef() {
+        return isSet("impact.baseRef") ? getString("impact.baseRef") : null;
+    }
+
+    public int getMaxReruns() {
+        return getInt("rerun.maxReruns");
+    }
+
+    public Duration getRerunBudget() {
+        return Duration.ofSeconds(getLong("rerun.budgetSeconds"));
+    }
+
+    public Path getFlakyStatsFile() {
+        return Path.of(getString("rerun.stats.file"));
+    }
+
+    // # locator analysis
+    public boolean isLocatorAnalysisEnabled() {
+        return getBoolean("locators.analyze");
+    }
+
+    // # raw values
+    public boolean isSet(String key) {
+        String value = values.get(key);
+        return value != null && !value.isBlank();
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @throws IllegalStateException if the key isn't set
+     */
+    public String getString(String key) {
+        if (!isSet(key)) {
+            throw new IllegalStateException("The configuration key " + key + " is not set, set it with -D" + key
+                    + " or the " + environmentName(key) + " environment variable.");
+        }
+        return values.get(key).trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(getString(key));
+    }
+
+    public long getLong(String key) {
+        return Long.parseLong(getString(key));
+    }
+
+    public boolean getBoolean(String key) {
+        return isSet(key) && Boolean.parseBoolean(getString(key));
+    }
+
+    public List<String> getList(String key, String separator) {
+        if (!isSet(key)) return List.of();
+
+        return Arrays.stream(getString(key).split(separator))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Returns the environment variable a key is read from: `wait.timeoutSeconds` becomes `WAIT_TIMEOUT_SECONDS`.
+     */
+    static String environmentName(String key) {
+        return key.replaceAll("([a-z0-9])([A-Z])", "$1_$2").replaceAll("[^A-Za-z0-9]", "_").toUpperCase();
+    }
+
+    private static String override(String key, Map<String, String> environment, Properties systemProperties) {
+        String value = systemProperties.getProperty(key);
+        if (value == null) value = environment.get(environmentName(key));
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static void merge(Map<String, String> values, Properties layer) {
+        for (String key : layer.stringPropertyNames()) {
+            // keys the defaults don't know are typos, they would silently do nothing
+            if (!values.containsKey(key)) throw new IllegalStateException("Unknown configuration key " + key);
+            values.put(key, layer.getProperty(key));
+        }
+    }
+
+    private static Properties readResource(String name) {
+        Properties properties = new Properties();
+        try (InputStream inputStream = ConfigurationManager.class.getClassLoader().getResourceAsStream(name)) {
+            if (inputStream == null) throw new IllegalStateException("Missing configuration resource " + name);
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the configuration resource " + name, e);
+        }
+        return properties;
+    }
+
+    private static Properties readFile(Path file) {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the configuration file " + file, e);
+        }
+        return properties;
     }
 }
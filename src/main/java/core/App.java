@@ -1,44 +1,130 @@
 package core;
 
+import config.ConfigurationManager;
+import core.devices.AppProvisioner;
+import core.devices.Device;
+import core.devices.DeviceScheduler;
+import core.fixtures.AppState;
+import core.fixtures.StateFixture;
+import core.metrics.InstrumentedCommandExecutor;
+import core.waits.WaitEngine;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.options.UiAutomator2Options;
 import pages.authentication.AuthenticationPage;
 import pages.products.ProductsPage;
 
-import java.io.File;
 import java.net.MalformedURLException;
-import java.net.URL;
-import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class App {
+    private static final ConfigurationManager CONFIGURATION = ConfigurationManager.getInstance();
+
+    public static final String APP_PACKAGE = CONFIGURATION.getAppPackage();
+    private static final long DEVICE_ACQUIRE_TIMEOUT_MINUTES = CONFIGURATION.getDeviceAcquireTimeoutMinutes();
+
+    // one session pool per device, so a device never runs more than one session at a time
+    private static final Map<Device, DriverPool> DRIVER_POOLS = new ConcurrentHashMap<>();
+
+    static {
+        // a single hook quits the sessions of every pool, whichever devices were used
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> DRIVER_POOLS.values().forEach(DriverPool::shutdown),
+                "driver-pool-shutdown"));
+    }
+
+    private Device device;
     private AppiumDriver driver;
+    private PageRegistry pages;
 
     // # pages
-    private AuthenticationPage authenticationPage;
-    private ProductsPage productsPage;
-
     public AuthenticationPage authenticationPage() {
-        return authenticationPage == null ? new AuthenticationPage(driver) : authenticationPage;
+        return pages.get(AuthenticationPage.class, AuthenticationPage::new);
     }
 
     public ProductsPage productsPage() {
-        return productsPage == null ? new ProductsPage(driver) : productsPage;
+        return pages.get(ProductsPage.class, ProductsPage::new);
     }
 
+    public Device getDevice() {
+        return device;
+    }
+
+    public AppiumDriver getDriver() {
+        return driver;
+    }
+
+    /**
+     * Brings the app to a named state by the fastest available route.
+     *
+     * @param state the state to reach
+     */
+    public void reach(AppState state) {
+        StateFixture.getInstance().reach(this, state);
+    }
+
+    /**
+     * Takes the next free device and leases a warm driver for it from the session pool. The first lease on a device
+     * waits until the app has been prepared on it, see {@link AppProvisioner}.
+     */
     protected void config() throws MalformedURLException {
-        File apk = new File("src/main/resources/app/android/Android.SauceLabs.Mobile.Sample.app.2.7.1.apk");
+        device = DeviceScheduler.getInstance().acquire(DEVICE_ACQUIRE_TIMEOUT_MINUTES);
+        try {
+            AppProvisioner.getInstance().awaitProvisioned(device);
+            driver = driverPool(device).lease();
+            pages = new PageRegistry(driver);
+        } catch (MalformedURLException | RuntimeException e) {
+            DeviceScheduler.getInstance().release(device);
+            device = null;
+            throw e;
+        }
+    }
 
-        UiAutomator2Options uiAutomator2Options = new UiAutomator2Options();
-        uiAutomator2Options.setDeviceName("38f4edee");
-        uiAutomator2Options.setApp(apk.getAbsolutePath());
-        uiAutomator2Options.setAppActivity("com.swaglabsmobileapp.MainActivity");
-        uiAutomator2Options.setAppPackage("com.swaglabsmobileapp");
+    /**
+     * Returns the driver to the session pool, the app state is reset before the next lease.
+     */
+    protected void releaseDriver() {
+        if (device == null) return;
 
-        driver = new AppiumDriver(new URL("http://127.0.0.1:4723"), uiAutomator2Options);
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        pages.clear();
+        driverPool(device).release(driver);
+        DeviceScheduler.getInstance().release(device);
+        driver = null;
+        device = null;
     }
 
+    /**
+     * Quits the driver instead of returning it to the session pool, used when the session can't be trusted anymore.
+     */
     protected void quitDriver() {
-        driver.quit();
+        if (device == null) return;
+
+        pages.clear();
+        driverPool(device).evict(driver);
+        DeviceScheduler.getInstance().release(device);
+        driver = null;
+        device = null;
+    }
+
+    private static DriverPool driverPool(Device device) {
+        return DRIVER_POOLS.computeIfAbsent(device,
+                key -> new DriverPool(() -> createDriver(key), APP_PACKAGE,
+                        DriverPool.ResetStrategy.valueOf(CONFIGURATION.getPoolResetStrategy())));
+    }
+
+    private static AppiumDriver createDriver(Device device) throws MalformedURLException {
+        UiAutomator2Options uiAutomator2Options = new UiAutomator2Options();
+        uiAutomator2Options.setDeviceName(device.udid());
+        uiAutomator2Options.setUdid(device.udid());
+        uiAutomator2Options.setSystemPort(device.systemPort());
+        // a prepared device already has the app, the session only launches it
+        if (!AppProvisioner.getInstance().isEnabled()) {
+            uiAutomator2Options.setApp(CONFIGURATION.getApkPath().toFile().getAbsolutePath());
+        }
+        uiAutomator2Options.setAppActivity(CONFIGURATION.getAppActivity());
+        uiAutomator2Options.setAppPackage(APP_PACKAGE);
+
+        AppiumDriver driver = new AppiumDriver(new InstrumentedCommandExecutor(device.url()), uiAutomator2Options);
+        WaitEngine.disableImplicitWait(driver);
+        return driver;
     }
 }
\ No newline at end of file
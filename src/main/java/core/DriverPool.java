@@ -0,0 +1,152 @@
+package core;
+
+import core.waits.UiChangeSignal;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+import pages.hierarchy.HierarchyCache;
+
+import java.net.MalformedURLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.logging.Logger;
+
+/**
+ * Keeps warm Appium sessions alive between tests. A leased driver is health checked before it is handed out,
+ * and a released driver has its app state reset instead of being quit. Sessions are only quit when they turn
+ * out to be broken or when the pool is shut down, the owner of a pool is responsible for shutting it down.
+ */
+public class DriverPool {
+    private static final Logger LOGGER = Logger.getLogger(DriverPool.class.getName());
+
+    // app states reported by `mobile: queryAppState`
+    private static final long RUNNING_IN_FOREGROUND = 4;
+
+    private final DriverFactory factory;
+    private final String appPackage;
+    private final ResetStrategy resetStrategy;
+
+    private final LinkedBlockingDeque<AppiumDriver> idleDrivers = new LinkedBlockingDeque<>();
+    private final Set<AppiumDriver> allDrivers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a new Appium session. Implementations are free to point at any WebDriver compatible server,
+     * which is what makes the pool testable against a local stand-in server.
+     */
+    @FunctionalInterface
+    public interface DriverFactory {
+        AppiumDriver create() throws MalformedURLException;
+    }
+
+    /**
+     * How the app is brought back to a clean state when a driver is returned to the pool.
+     */
+    public enum ResetStrategy {
+        // terminates and activates the app again, keeps the app data
+        RESTART,
+        // wipes the app data and activates the app again, equivalent to a fresh install
+        CLEAR_DATA
+    }
+
+    public DriverPool(DriverFactory factory, String appPackage, ResetStrategy resetStrategy) {
+        this.factory = factory;
+        this.appPackage = appPackage;
+        this.resetStrategy = resetStrategy;
+    }
+
+    /**
+     * Leases a healthy driver, reusing an idle session when possible and creating a new one otherwise.
+     *
+     * @return a driver with the app running in the foreground
+     */
+    public AppiumDriver lease() throws MalformedURLException {
+        AppiumDriver driver;
+        while ((driver = idleDrivers.pollFirst()) != null) {
+            if (isHealthy(driver)) {
+                // the hierarchy cached by the previous test describes a screen that is gone
+                HierarchyCache.of(driver).invalidate();
+                return driver;
+            }
+            LOGGER.info("Evicting unhealthy session " + driver.getSessionId());
+            evict(driver);
+        }
+
+        driver = factory.create();
+        allDrivers.add(driver);
+        return driver;
+    }
+
+    /**
+     * Returns a driver to the pool after resetting the app state. Drivers that can't be reset are evicted.
+     *
+     * @param driver the driver to be returned
+     */
+    public void release(AppiumDriver driver) {
+        if (driver == null || !allDrivers.contains(driver)) return;
+
+        try {
+            resetApp(driver);
+            idleDrivers.offerFirst(driver);
+        } catch (WebDriverException e) {
+            LOGGER.info("Failed to reset the app state, evicting session " + driver.getSessionId() + ": " + e.getMessage());
+            evict(driver);
+        }
+    }
+
+    /**
+     * Quits a driver and removes it from the pool.
+     *
+     * @param driver the driver to be removed
+     */
+    public void evict(AppiumDriver driver) {
+        if (driver == null) return;
+
+        allDrivers.remove(driver);
+        idleDrivers.remove(driver);
+        UiChangeSignal.release(driver);
+        HierarchyCache.release(driver);
+        try {
+            driver.quit();
+        } catch (WebDriverException e) {
+            // the session is already gone
+        }
+    }
+
+    /**
+     * Quits every session owned by the pool.
+     */
+    public void shutdown() {
+        for (AppiumDriver driver : allDrivers) {
+            evict(driver);
+        }
+    }
+
+    public int size() {
+        return allDrivers.size();
+    }
+
+    public int idleCount() {
+        return idleDrivers.size();
+    }
+
+    private void resetApp(AppiumDriver driver) {
+        switch (resetStrategy) {
+            case RESTART -> driver.executeScript("mobile: terminateApp", Map.of("appId", appPackage));
+            case CLEAR_DATA -> driver.executeScript("mobile: clearApp", Map.of("appId", appPackage));
+        }
+        driver.executeScript("mobile: activateApp", Map.of("appId", appPackage));
+        HierarchyCache.of(driver).invalidate();
+    }
+
+    private boolean isHealthy(AppiumDriver driver) {
+        if (driver.getSessionId() == null) return false;
+
+        try {
+            Object state = driver.executeScript("mobile: queryAppState", Map.of("appId", appPackage));
+            return state instanceof Number && ((Number) state).longValue() == RUNNING_IN_FOREGROUND;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package core;
+
+import io.appium.java_client.AppiumDriver;
+import pages.BasePage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Creates every page object once per driver session. A page is only built on its first access and its element
+ * proxies only look elements up when they are used, so pages a test never touches cost nothing.
+ */
+public class PageRegistry {
+    private static final AtomicLong PAGE_INSTANCES = new AtomicLong();
+
+    private final AppiumDriver driver;
+    private final Map<Class<? extends BasePage>, BasePage> pages = new ConcurrentHashMap<>();
+
+    public PageRegistry(AppiumDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Returns the page of the given type, creating it on first access.
+     *
+     * @param type        the page type
+     * @param constructor creates the page for the session's driver
+     * @return the page instance of the session
+     */
+    public <T extends BasePage> T get(Class<T> type, Function<AppiumDriver, T> constructor) {
+        return type.cast(pages.computeIfAbsent(type, key -> {
+            PAGE_INSTANCES.incrementAndGet();
+            return constructor.apply(driver);
+        }));
+    }
+
+    /**
+     * Drops every page of the session, called when the session is reset or released.
+     */
+    public void clear() {
+        pages.clear();
+    }
+
+    /**
+     * Returns the number of page instances created during the run.
+     */
+    public static long getPageInstanceCount() {
+        return PAGE_INSTANCES.get();
+    }
+}
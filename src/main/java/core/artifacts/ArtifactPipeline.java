@@ -0,0 +1,209 @@
+package core.artifacts;
+
+import config.ConfigurationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Writes failure artifacts in the background, so capturing them costs a test no more than the screenshot and
+ * page source round trips. Screenshots are recompressed and page sources minified on a small worker pool, and
+ * both are stored by content hash, so identical screens are written once however many tests fail on them. Each
+ * failure appends a line to `index.tsv` that points at its artifacts.
+ * <p>
+ * Memory is bounded by the queue: when it is full the artifacts of the failure are dropped and logged instead of
+ * holding the test back. The directory, the workers and the queue capacity are configured by the `artifacts.*` keys.
+ */
+public class ArtifactPipeline {
+    private static final Logger LOGGER = Logger.getLogger(ArtifactPipeline.class.getName());
+
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    private static final Pattern WHITESPACE_BETWEEN_TAGS = Pattern.compile(">\\s+<");
+
+    private static final ArtifactPipeline INSTANCE = new ArtifactPipeline(ConfigurationManager.getInstance().getArtifactsDirectory(),
+            ConfigurationManager.getInstance().getArtifactWorkers(), ConfigurationManager.getInstance().getArtifactQueueCapacity());
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(INSTANCE::drain, "artifact-pipeline-drain"));
+    }
+
+    private final Path directory;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> writtenHashes = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    /**
+     * Creates a pipeline of its own, only the shared instance is drained when the JVM shuts down.
+     *
+     * @param directory     the directory the artifacts are written to
+     * @param workers       the number of background writers
+     * @param queueCapacity the number of failures that can wait for a writer
+     */
+    public ArtifactPipeline(Path directory, int workers, int queueCapacity) {
+        this.directory = directory;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "artifact-writer-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedCount.incrementAndGet());
+    }
+
+    public static ArtifactPipeline getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Hands the raw artifacts of a failure to the background writers and returns immediately.
+     *
+     * @param testId     the failed test
+     * @param failure    the failure message, may be null
+     * @param screenshot the PNG screenshot, may be null when it couldn't be captured
+     * @param pageSource the page source, may be null when it couldn't be captured
+     */
+    public void submit(String testId, String failure, byte[] screenshot, String pageSource) {
+        Instant failedAt = Instant.now();
+        executor.execute(() -> write(testId, failure, failedAt, screenshot, pageSource));
+    }
+
+    /**
+     * Returns the number of failures whose artifacts were dropped because the queue was full.
+     */
+    public int getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Waits for the queued artifacts to be written. Called for the shared instance when the JVM shuts down.
+     */
+    public void drain() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                System.out.println("Gave up waiting for " + executor.getQueue().size() + " queued failure artifacts");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // printed directly, the logging framework resets its handlers during shutdown
+        if (droppedCount.get() > 0) {
+            System.out.println("Dropped the artifacts of " + droppedCount.get() + " failures, the artifact queue was full");
+        }
+    }
+
+    private void write(String testId, String failure, Instant failedAt, byte[] screenshot, String pageSource) {
+        try {
+            Files.createDirectories(directory);
+
+            String screenshotFile = screenshot == null ? "-" : store(screenshot, "png", ArtifactPipeline::recompress);
+            String pageSourceFile = pageSource == null ? "-"
+                    : store(pageSource.getBytes(StandardCharsets.UTF_8), "xml", ArtifactPipeline::minify);
+
+            String line = String.join("\t", failedAt.toString(), testId, screenshotFile, pageSourceFile,
+                    failure == null ? "" : failure.replaceAll("\\s+", " ")) + System.lineSeparator();
+            synchronized (this) {
+                Files.writeString(directory.resolve("index.tsv"), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException e) {
+            LOGGER.info("Failed to write the failure artifacts of " + testId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stores an artifact under the hash of its raw content, so the transformation is skipped for known content.
+     * A hash is only remembered once its file is in place, an artifact that failed to be written is written again.
+     *
+     * @return the file name of the artifact
+     */
+    private String store(byte[] content, String extension, Transformation transformation) throws IOException {
+        String fileName = sha256(content) + "." + extension;
+        if (writtenHashes.contains(fileName)) return fileName;
+
+        Path file = directory.resolve(fileName);
+        if (!Files.exists(file)) {
+            Path temporaryFile = Files.createTempFile(directory, fileName, ".tmp");
+            try {
+                Files.write(temporaryFile, transformation.apply(content));
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+        writtenHashes.add(fileName);
+        return fileName;
+    }
+
+    @FunctionalInterface
+    private interface Transformation {
+        byte[] apply(byte[] content) throws IOException;
+    }
+
+    /**
+     * Rewrites a PNG with the strongest deflate level, device screenshots are usually encoded for speed.
+     * The original is kept when it's smaller or can't be decoded.
+     */
+    public static byte[] recompress(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) return png;
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream(png.length);
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            if (parameters.canWriteCompressed()) {
+                parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                parameters.setCompressionQuality(0.0f);
+            }
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+        return output.size() < png.length ? output.toByteArray() : png;
+    }
+
+    /**
+     * Removes the indentation between the tags of a page source.
+     */
+    public static byte[] minify(byte[] xml) {
+        String source = new String(xml, StandardCharsets.UTF_8);
+        return WHITESPACE_BETWEEN_TAGS.matcher(source.strip()).replaceAll("><").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package core.devices;
+
+import config.ConfigurationManager;
+import core.metrics.InstrumentedCommandExecutor;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Logger;
+
+/**
+ * Prepares the app on every device once per run, so test sessions don't carry the APK and start without Appium
+ * checking or reinstalling the app. The first session request kicks off the preparation of all registered devices
+ * in parallel, a session only waits for its own device.
+ * <p>
+ * A device is prepared in a short session of its own that doesn't launch the app:
+ * <ol>
+ *     <li>install the APK, skipped when the app is installed and the device record holds the SHA-256 of the APK</li>
+ *     <li>grant all runtime permissions the app requests</li>
+ *     <li>warm up, launch the app once and stop it, so the first test doesn't pay for the cold start</li>
+ * </ol>
+ * The device records are kept in the file given by `provisioning.file` across runs, one `&lt;udid&gt;=&lt;sha256&gt;`
+ * line per device. Set `provisioning.enabled=false` to hand the APK to every session instead.
+ */
+public class AppProvisioner {
+    private static final Logger LOGGER = Logger.getLogger(AppProvisioner.class.getName());
+
+    // app states reported by `mobile: queryAppState`
+    private static final long RUNNING_IN_FOREGROUND = 4;
+    private static final int WARM_UP_CHECKS = 60;
+    private static final long WARM_UP_CHECK_MILLIS = 500;
+
+    private static final AppProvisioner INSTANCE = new AppProvisioner(ConfigurationManager.getInstance());
+
+    private final boolean enabled;
+    private final boolean warmUp;
+    private final Path apk;
+    private final String appPackage;
+    private final Path recordsFile;
+    private final Properties records = new Properties();
+
+    // one virtual thread per device, the preparation mostly waits for the devices
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Device, CompletableFuture<Void>> provisionings = new ConcurrentHashMap<>();
+    private volatile String apkHash;
+
+    AppProvisioner(ConfigurationManager configuration) {
+        this.enabled = configuration.isProvisioningEnabled();
+        this.warmUp = configuration.isProvisioningWarmUpEnabled();
+        this.apk = configuration.getApkPath().toAbsolutePath();
+        this.appPackage = configuration.getAppPackage();
+        this.recordsFile = configuration.getProvisioningFile();
+        loadRecords();
+    }
+
+    public static AppProvisioner getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts preparing the app on every device in parallel, devices that are already being prepared are skipped.
+     *
+     * @param devices the devices to prepare
+     */
+    public void provisionAll(List<Device> devices) {
+        if (!enabled) return;
+
+        for (Device device : devices) {
+            provisionings.computeIfAbsent(device, key -> CompletableFuture.runAsync(() -> provision(key), executor));
+        }
+    }
+
+    /**
+     * Waits until the app is prepared on a device. The first call starts the preparation of all registered devices,
+     * a device whose preparation failed is prepared again by the next call for it.
+     *
+     * @param device the device a session is about to be created on
+     * @throws IllegalStateException if the app couldn't be prepared on the device
+     */
+    public void awaitProvisioned(Device device) {
+        if (!enabled) return;
+
+        if (provisionings.isEmpty()) provisionAll(DeviceScheduler.getInstance().getRegistry().getDevices());
+        provisionAll(List.of(device));
+        CompletableFuture<Void> provisioning = provisionings.get(device);
+        try {
+            provisioning.join();
+        } catch (CompletionException e) {
+            // a failed preparation isn't remembered, the next session on the device tries again
+            provisionings.remove(device, provisioning);
+            throw new IllegalStateException("Failed to prepare the app on " + device.udid(), e.getCause());
+        }
+    }
+
+    private void provision(Device device) {
+        long start = System.nanoTime();
+        AppiumDriver driver = createSession(device);
+        try {
+            if (isInstalled(driver) && apkHash().equals(recordOf(device))) {
+                LOGGER.info("The app on " + device.udid() + " is up to date, skipping the install");
+            } else {
+                driver.executeScript("mobile: installApp", Map.of("appPath", apk.toString(), "replace", true));
+                record(device, apkHash());
+            }
+
+            driver.executeScript("mobile: changePermissions", Map.of("permissions", "all", "appPackage", appPackage, "action", "grant"));
+            if (warmUp) warmUp(driver);
+        } finally {
+            driver.quit();
+        }
+        LOGGER.info("Prepared the app on " + device.udid() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    private AppiumDriver createSession(Device device) {
+        UiAutomator2Options options = new UiAutomator2Options();
+        options.setDeviceName(device.udid());
+        options.setUdid(device.udid());
+        options.setSystemPort(device.systemPort());
+        // the app may not be installed yet, the session must not try to launch it
+        options.amend("appium:autoLaunch", false);
+        options.setNoReset(true);
+
+        try {
+            return new AppiumDriver(new InstrumentedCommandExecutor(device.url()), options);
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException("Invalid Appium server url " + device.serverUrl(), e);
+        }
+    }
+
+    private boolean isInstalled(AppiumDriver driver) {
+        return Boolean.TRUE.equals(driver.executeScript("mobile: isAppInstalled", Map.of("appId", appPackage)));
+    }
+
+    private void warmUp(AppiumDriver driver) {
+        driver.executeScript("mobile: activateApp", Map.of("appId", appPackage));
+        try {
+            for (int check = 0; check < WARM_UP_CHECKS; check++) {
+                Object state = driver.executeScript("mobile: queryAppState", Map.of("appId", appPackage));
+                if (state instanceof Number number && number.longValue() == RUNNING_IN_FOREGROUND) return;
+                Thread.sleep(WARM_UP_CHECK_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            driver.executeScript("mobile: terminateApp", Map.of("appId", appPackage));
+        }
+    }
+
+    /**
+     * Returns the SHA-256 of the APK, hashed once per run.
+     */
+    String apkHash() {
+        String hash = apkHash;
+        if (hash == null) {
+            synchronized (this) {
+                if (apkHash == null) apkHash = sha256(apk);
+                hash = apkHash;
+            }
+        }
+        return hash;
+    }
+
+    static String sha256(Path file) {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to hash the APK " + file, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // # device records
+    private synchronized String recordOf(Device device) {
+        return records.getProperty(device.udid());
+    }
+
+    private synchronized void record(Device device, String hash) {
+        records.setProperty(device.udid(), hash);
+        try {
+            if (recordsFile.toAbsolutePath().getParent() != null) Files.createDirectories(recordsFile.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(recordsFile)) {
+                records.store(writer, "SHA-256 of the APK installed per device: <udid>=<sha256>");
+            }
+        } catch (IOException e) {
+            LOGGER.info("Failed to write the device records to " + recordsFile + ": " + e.getMessage());
+        }
+    }
+
+    private void loadRecords() {
+        if (!enabled || !Files.exists(recordsFile)) return;
+
+        try (Reader reader = Files.newBufferedReader(recordsFile)) {
+            records.load(reader);
+        } catch (IOException e) {
+            LOGGER.info("Failed to read the device records from " + recordsFile + ", every device is installed again: " + e.getMessage());
+        }
+    }
+}
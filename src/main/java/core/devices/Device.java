@@ -0,0 +1,19 @@
+package core.devices;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+
+/**
+ * A device from the farm together with the Appium server that drives it.
+ *
+ * @param udid       the adb serial of the device
+ * @param serverUrl  the Appium server the device is attached to
+ * @param systemPort the UiAutomator2 system port, has to be unique per device on the same host
+ */
+public record Device(String udid, String serverUrl, int systemPort) {
+
+    public URL url() throws MalformedURLException {
+        return URI.create(serverUrl).toURL();
+    }
+}
@@ -0,0 +1,101 @@
+package core.devices;
+
+import config.ConfigurationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reads the list of available devices. The list is taken from the `devices` configuration key, where entries are
+ * separated by `;`, or else from the file given by `devices.file`, and falls back to `devices.properties` on the
+ * classpath. Each entry is a line of the form:
+ * <pre>
+ * &lt;udid&gt;=&lt;appium server url&gt;,&lt;uiautomator2 system port&gt;
+ * </pre>
+ */
+public class DeviceRegistry {
+    private static final String DEVICES_RESOURCE = "devices.properties";
+
+    private static final Device DEFAULT_DEVICE = new Device("38f4edee", "http://127.0.0.1:4723", 8200);
+
+    private final List<Device> devices;
+
+    public DeviceRegistry(List<Device> devices) {
+        if (devices.isEmpty()) {
+            throw new IllegalStateException("The device registry must contain at least one device.");
+        }
+        this.devices = List.copyOf(devices);
+    }
+
+    /**
+     * Loads the device registry from the configured inline device list or devices file.
+     */
+    public static DeviceRegistry load() {
+        ConfigurationManager configuration = ConfigurationManager.getInstance();
+        List<String> lines;
+
+        try {
+            if (!configuration.getDevices().isEmpty()) {
+                lines = configuration.getDevices();
+            } else if (configuration.getDevicesFile() != null) {
+                lines = Files.readAllLines(configuration.getDevicesFile());
+            } else {
+                try (InputStream inputStream = DeviceRegistry.class.getClassLoader().getResourceAsStream(DEVICES_RESOURCE)) {
+                    if (inputStream == null) return new DeviceRegistry(List.of(DEFAULT_DEVICE));
+                    lines = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)).lines().toList();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read the device registry.", e);
+        }
+
+        return new DeviceRegistry(parse(lines));
+    }
+
+    /**
+     * Parses device entries, one per line, sorted by udid. The udid ends at the first `=`, so TCP serials like
+     * `192.168.1.5:5555` are kept whole. Blank lines and lines starting with `#` or `!` are skipped, and a later
+     * entry for the same udid replaces an earlier one.
+     *
+     * @param lines the device entries
+     * @return the devices
+     * @throws IllegalStateException if an entry is malformed
+     */
+    public static List<Device> parse(List<String> lines) {
+        Map<String, Device> devices = new TreeMap<>();
+        for (String line : lines) {
+            String entry = line.trim();
+            if (entry.isEmpty() || entry.startsWith("#") || entry.startsWith("!")) continue;
+
+            int separator = entry.indexOf('=');
+            String udid = separator < 0 ? entry : entry.substring(0, separator).trim();
+            String[] values = separator < 0 ? new String[0] : entry.substring(separator + 1).split(",");
+            if (udid.isEmpty() || values.length != 2) {
+                throw new IllegalStateException("Invalid device entry " + entry + ", expected <udid>=<server url>,<system port>.");
+            }
+            try {
+                devices.put(udid, new Device(udid, values[0].trim(), Integer.parseInt(values[1].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalStateException("Invalid system port in the device entry " + entry + ".", e);
+            }
+        }
+        return new ArrayList<>(devices.values());
+    }
+
+    public List<Device> getDevices() {
+        return Collections.unmodifiableList(devices);
+    }
+
+    public int size() {
+        return devices.size();
+    }
+}
@@ -0,0 +1,60 @@
+package core.devices;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands out devices to concurrently running tests. Every test takes the next free device and gives it back once
+ * it's done, so a slow test never keeps the rest of the farm idle.
+ */
+public class DeviceScheduler {
+    private static final DeviceScheduler INSTANCE = new DeviceScheduler(DeviceRegistry.load());
+
+    private final DeviceRegistry registry;
+    private final LinkedBlockingQueue<Device> freeDevices;
+
+    public DeviceScheduler(DeviceRegistry registry) {
+        this.registry = registry;
+        this.freeDevices = new LinkedBlockingQueue<>(registry.getDevices());
+    }
+
+    public static DeviceScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Blocks until a device is free and takes it.
+     *
+     * @param timeoutMinutes how long to wait for a free device
+     * @return the acquired device
+     */
+    public Device acquire(long timeoutMinutes) {
+        try {
+            Device device = freeDevices.poll(timeoutMinutes, TimeUnit.MINUTES);
+            if (device == null) {
+                throw new IllegalStateException("No device became free within " + timeoutMinutes + " minutes.");
+            }
+            return device;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free device.", e);
+        }
+    }
+
+    /**
+     * Gives a device back so the next test can take it.
+     *
+     * @param device the device to be released
+     */
+    public void release(Device device) {
+        if (device != null) freeDevices.offer(device);
+    }
+
+    public DeviceRegistry getRegistry() {
+        return registry;
+    }
+
+    public int freeCount() {
+        return freeDevices.size();
+    }
+}
@@ -0,0 +1,32 @@
+package core.fixtures;
+
+import config.ConfigurationManager;
+
+import java.util.function.Function;
+
+/**
+ * Named app states a test can start from instead of driving the UI there itself.
+ */
+public enum AppState {
+    PRODUCTS_AS_STANDARD_USER("swaglabs://swag-overview/", ConfigurationManager::getStandardUser),
+    PRODUCTS_AS_PROBLEM_USER(null, ConfigurationManager::getProblemUser);
+
+    private final String deepLink;
+    private final Function<ConfigurationManager, String> username;
+
+    AppState(String deepLink, Function<ConfigurationManager, String> username) {
+        this.deepLink = deepLink;
+        this.username = username;
+    }
+
+    /**
+     * The deep link that opens the state, null if the app has no deep link for it.
+     */
+    public String getDeepLink() {
+        return deepLink;
+    }
+
+    public String getUsername(ConfigurationManager configurationManager) {
+        return username.apply(configurationManager);
+    }
+}
@@ -0,0 +1,27 @@
+package core.fixtures;
+
+import core.App;
+import org.openqa.selenium.WebDriverException;
+import pages.hierarchy.HierarchyCache;
+
+import java.util.Map;
+
+/**
+ * Opens the state through the app's deep link, delivered as a VIEW intent by `mobile: deepLink`.
+ */
+public class DeepLinkRoute implements StateRoute {
+
+    @Override
+    public boolean reach(App app, AppState state) {
+        if (state.getDeepLink() == null) return false;
+
+        try {
+            app.getDriver().executeScript("mobile: deepLink", Map.of("url", state.getDeepLink(), "package", App.APP_PACKAGE));
+            // the cached hierarchy shows the screen before the link was opened
+            HierarchyCache.of(app.getDriver()).invalidate();
+            return true;
+        } catch (WebDriverException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package core.fixtures;
+
+import core.App;
+import core.devices.Device;
+import org.openqa.selenium.WebDriverException;
+import pages.hierarchy.HierarchyCache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Restores an app data snapshot that was saved the first time the state was reached on a device.
+ * Saving and restoring go through `run-as`, so they need a debuggable build and a server started with
+ * `--relaxed-security`. Devices where that fails are remembered and skipped for the rest of the run.
+ */
+public class SnapshotRoute implements StateRoute {
+    private static final String SNAPSHOT_DIRECTORY = "/data/local/tmp/app-state-snapshots";
+
+    private final Map<Device, Set<AppState>> savedSnapshots = new ConcurrentHashMap<>();
+    private final Set<Device> unsupportedDevices = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public boolean reach(App app, AppState state) {
+        Device device = app.getDevice();
+        if (unsupportedDevices.contains(device) || !savedSnapshots.getOrDefault(device, Set.of()).contains(state)) return false;
+
+        try {
+            app.getDriver().executeScript("mobile: terminateApp", Map.of("appId", App.APP_PACKAGE));
+            shell(app, "run-as", App.APP_PACKAGE, "tar", "xf", snapshotPath(state));
+            app.getDriver().executeScript("mobile: activateApp", Map.of("appId", App.APP_PACKAGE));
+            return true;
+        } catch (WebDriverException e) {
+            unsupportedDevices.add(device);
+            // leave the app running for the next route
+            try {
+                app.getDriver().executeScript("mobile: activateApp", Map.of("appId", App.APP_PACKAGE));
+            } catch (WebDriverException activateFailure) {
+                e.addSuppressed(activateFailure);
+            }
+            return false;
+        } finally {
+            // the cached hierarchy shows the screen before the app was restarted
+            HierarchyCache.of(app.getDriver()).invalidate();
+        }
+    }
+
+    /**
+     * Saves the app data of the current state, so the next test on the same device can restore it.
+     *
+     * @param app   the app of the current test
+     * @param state the state the app is in
+     */
+    public void save(App app, AppState state) {
+        Device device = app.getDevice();
+        if (unsupportedDevices.contains(device)) return;
+
+        try {
+            shell(app, "mkdir", "-p", SNAPSHOT_DIRECTORY);
+            shell(app, "chmod", "777", SNAPSHOT_DIRECTORY);
+            // run-as starts in the data directory of the app
+            shell(app, "run-as", App.APP_PACKAGE, "tar", "cf", snapshotPath(state), ".");
+            savedSnapshots.computeIfAbsent(device, key -> ConcurrentHashMap.newKeySet()).add(state);
+        } catch (WebDriverException e) {
+            unsupportedDevices.add(device);
+        }
+    }
+
+    private static void shell(App app, String command, String... args) {
+        app.getDriver().executeScript("mobile: shell", Map.of("command", command, "args", List.of(args)));
+    }
+
+    private static String snapshotPath(AppState state) {
+        return SNAPSHOT_DIRECTORY + "/" + state.name().toLowerCase() + ".tar";
+    }
+}
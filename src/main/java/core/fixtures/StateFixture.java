@@ -0,0 +1,63 @@
+package core.fixtures;
+
+import core.App;
+import core.devices.Device;
+import org.openqa.selenium.TimeoutException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Brings the app to a named state by the fastest route that works: a deep link, a restored app data snapshot,
+ * or logging in through the UI. Routes that failed for a state on a device are not tried again on that device, and
+ * reaching a state through the UI saves a snapshot for the next test on the same device.
+ */
+public class StateFixture {
+    private static final Logger LOGGER = Logger.getLogger(StateFixture.class.getName());
+    private static final StateFixture INSTANCE = new StateFixture();
+
+    private final SnapshotRoute snapshotRoute = new SnapshotRoute();
+    private final List<StateRoute> routes = List.of(new DeepLinkRoute(), snapshotRoute, new UiLoginRoute());
+    // device -> state -> routes that failed, one device failing a route says nothing about the others
+    private final Map<Device, Map<AppState, Set<StateRoute>>> failedRoutes = new ConcurrentHashMap<>();
+
+    public static StateFixture getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Brings the app to the state.
+     *
+     * @param app   the app of the current test
+     * @param state the state to reach
+     */
+    public void reach(App app, AppState state) {
+        Set<StateRoute> failed = failedRoutes.computeIfAbsent(app.getDevice(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(state, key -> ConcurrentHashMap.newKeySet());
+
+        for (StateRoute route : routes) {
+            if (failed.contains(route)) continue;
+
+            if (route.reach(app, state) && isReached(app)) {
+                if (route instanceof UiLoginRoute) snapshotRoute.save(app, state);
+                return;
+            }
+
+            // the snapshot route fails until a snapshot was saved on the device, so it isn't ruled out
+            if (!(route instanceof SnapshotRoute)) failed.add(route);
+            LOGGER.info(route.getClass().getSimpleName() + " did not reach " + state + " on " + app.getDevice().udid() + ", trying the next route.");
+        }
+        throw new IllegalStateException("None of the routes reached the app state " + state);
+    }
+
+    private static boolean isReached(App app) {
+        try {
+            return app.productsPage().isDisplayed(app.productsPage().getProductsPageTitle());
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+}
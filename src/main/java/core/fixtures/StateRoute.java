@@ -0,0 +1,18 @@
+package core.fixtures;
+
+import core.App;
+
+/**
+ * A way of bringing the app to a named state.
+ */
+public interface StateRoute {
+
+    /**
+     * Tries to bring the app to the state.
+     *
+     * @param app   the app of the current test
+     * @param state the state to reach
+     * @return false if the route can't reach the state, in which case the next route is tried
+     */
+    boolean reach(App app, AppState state);
+}
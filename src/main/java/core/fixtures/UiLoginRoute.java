@@ -0,0 +1,19 @@
+package core.fixtures;
+
+import config.ConfigurationManager;
+import core.App;
+import pages.hierarchy.HierarchyCache;
+
+/**
+ * Logs in through the login screen, the fallback that always works.
+ */
+public class UiLoginRoute implements StateRoute {
+
+    @Override
+    public boolean reach(App app, AppState state) {
+        ConfigurationManager configurationManager = ConfigurationManager.getInstance();
+        app.authenticationPage().authenticate(state.getUsername(configurationManager), configurationManager.getPassword());
+        HierarchyCache.of(app.getDriver()).invalidate();
+        return true;
+    }
+}
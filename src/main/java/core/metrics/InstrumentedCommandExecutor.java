@@ -0,0 +1,38 @@
+package core.metrics;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+
+import java.net.URL;
+
+/**
+ * An Appium command executor that records the latency of every command it sends to the server.
+ * Script executions are recorded per script, so every `mobile:` command gets its own latency histogram.
+ */
+public class InstrumentedCommandExecutor extends AppiumCommandExecutor {
+
+    public InstrumentedCommandExecutor(URL addressOfRemoteServer) {
+        super(MobileCommand.commandRepository, addressOfRemoteServer);
+    }
+
+    @Override
+    public Response execute(Command command) {
+        long start = System.nanoTime();
+        try {
+            return super.execute(command);
+        } finally {
+            Metrics.recordCommand(commandName(command), System.nanoTime() - start);
+        }
+    }
+
+    private static String commandName(Command command) {
+        if (DriverCommand.EXECUTE_SCRIPT.equals(command.getName())) {
+            Object script = command.getParameters().get("script");
+            if (script instanceof String name && name.startsWith("mobile:")) return name;
+        }
+        return command.getName();
+    }
+}
@@ -0,0 +1,97 @@
+package core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free latency histogram with HDR style log-linear buckets. Every power of two range is split into
+ * 16 linear sub-buckets, which keeps the recorded percentiles within about 6% of the real values from
+ * microseconds up to hours.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // the largest exponent covers about 2^40 microseconds, everything above is clamped into the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+
+        counts.incrementAndGet(bucketIndex(micros));
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getSumMicros() {
+        return sumMicros.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns the latency at a quantile.
+     *
+     * @param quantile the quantile between 0 and 1
+     * @return the upper bound of the bucket holding the quantile in microseconds, never more than the recorded maximum
+     */
+    public long valueAtQuantile(double quantile) {
+        long total = count.get();
+        if (total == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= rank) return Math.min(bucketUpperBound(i), maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+
+    /**
+     * Returns the bucket of a latency, latencies below 16 microseconds have a bucket each.
+     *
+     * @param micros the latency in microseconds
+     * @return the bucket index
+     */
+    public static int bucketIndex(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+
+        int exponent = Math.min(63 - Long.numberOfLeadingZeros(micros), MAX_EXPONENT);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) Math.min((micros >> shift) - SUB_BUCKETS, SUB_BUCKETS - 1);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest latency in a bucket.
+     *
+     * @param index the bucket index
+     * @return the upper bound of the bucket in microseconds, inclusive
+     */
+    public static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,181 @@
+package core.metrics;
+
+import config.ConfigurationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects driver and page object metrics for the whole run: latencies per driver command, per page helper and
+ * locator, element wait durations and stale element retries. The metrics are written in the Prometheus text
+ * format when the JVM shuts down to the configured metrics file, see {@link #export(Path)}, and a summary is printed at the same time
+ * when `metrics.summary=true`.
+ */
+public class Metrics {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final int SUMMARY_ROWS = 15;
+
+    // family -> rendered labels -> histogram
+    private static final Map<String, Map<String, LatencyHistogram>> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, Map<String, LongAdder>> COUNTERS = new ConcurrentHashMap<>();
+    private static final List<StepListener> STEP_LISTENERS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Gets every page helper call as soon as it finishes, on the thread of the test that made it.
+     */
+    @FunctionalInterface
+    public interface StepListener {
+        void onStep(String page, String helper, String locator, long nanos);
+    }
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Metrics::exportAndSummarize, "metrics-export"));
+    }
+
+    private Metrics() {
+    }
+
+    public static void recordCommand(String command, long nanos) {
+        histogram("driver_command_duration_seconds", labels("command", command)).record(nanos);
+    }
+
+    public static void recordHelper(String page, String helper, String locator, long nanos) {
+        histogram("page_helper_duration_seconds", labels("page", page, "helper", helper, "locator", locator)).record(nanos);
+        for (StepListener listener : STEP_LISTENERS) {
+            listener.onStep(page, helper, locator, nanos);
+        }
+    }
+
+    public static void recordWait(String locator, String outcome, long nanos) {
+        histogram("element_wait_duration_seconds", labels("locator", locator, "outcome", outcome)).record(nanos);
+    }
+
+    public static void recordRetry(String page, String locator) {
+        COUNTERS.computeIfAbsent("page_helper_retries_total", key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(labels("page", page, "locator", locator), key -> new LongAdder())
+                .increment();
+    }
+
+    public static void addStepListener(StepListener listener) {
+        STEP_LISTENERS.add(listener);
+    }
+
+    public static void removeStepListener(StepListener listener) {
+        STEP_LISTENERS.remove(listener);
+    }
+
+    /**
+     * Returns the histogram of a metric, creating it on first use.
+     *
+     * @param family the metric family
+     * @param labels the rendered labels of the metric
+     * @return the histogram
+     */
+    static LatencyHistogram histogram(String family, String labels) {
+        return HISTOGRAMS.computeIfAbsent(family, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(labels, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format, latencies as summaries in seconds.
+     */
+    public static String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+
+        new TreeMap<>(HISTOGRAMS).forEach((family, histograms) -> {
+            text.append("# TYPE ").append(family).append(" summary\n");
+            new TreeMap<>(histograms).forEach((labels, histogram) -> {
+                for (double quantile : QUANTILES) {
+                    text.append(family).append(withLabel(labels, "quantile", String.valueOf(quantile)))
+                            .append(' ').append(seconds(histogram.valueAtQuantile(quantile))).append('\n');
+                }
+                text.append(family).append("_sum").append(labels).append(' ').append(seconds(histogram.getSumMicros())).append('\n');
+                text.append(family).append("_count").append(labels).append(' ').append(histogram.getCount()).append('\n');
+            });
+        });
+
+        new TreeMap<>(COUNTERS).forEach((family, counters) -> {
+            text.append("# TYPE ").append(family).append(" counter\n");
+            new TreeMap<>(counters).forEach((labels, counter) ->
+                    text.append(family).append(labels).append(' ').append(counter.sum()).append('\n'));
+        });
+        return text.toString();
+    }
+
+    /**
+     * Writes every metric to a file in the Prometheus text exposition format.
+     *
+     * @param file the file to write
+     */
+    public static void export(Path file) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Files.writeString(file, toPrometheusText());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to export the metrics to " + file, e);
+        }
+    }
+
+    /**
+     * Returns a table of the slowest driver commands and page helpers by total time.
+     */
+    public static String summary() {
+        StringBuilder summary = new StringBuilder(String.format("%-100s %8s %10s %10s %10s%n", "metric", "count", "total ms", "p50 ms", "p99 ms"));
+
+        Map<String, LatencyHistogram> rows = new TreeMap<>();
+        for (String family : new String[]{"driver_command_duration_seconds", "page_helper_duration_seconds", "element_wait_duration_seconds"}) {
+            HISTOGRAMS.getOrDefault(family, Map.of()).forEach((labels, histogram) -> rows.put(family + labels, histogram));
+        }
+
+        rows.entrySet().stream()
+                .sorted((first, second) -> Long.compare(second.getValue().getSumMicros(), first.getValue().getSumMicros()))
+                .limit(SUMMARY_ROWS)
+                .forEach(row -> summary.append(String.format("%-100s %8d %10.1f %10.1f %10.1f%n",
+                        row.getKey(),
+                        row.getValue().getCount(),
+                        row.getValue().getSumMicros() / 1000.0,
+                        row.getValue().valueAtQuantile(0.5) / 1000.0,
+                        row.getValue().valueAtQuantile(0.99) / 1000.0)));
+        return summary.toString();
+    }
+
+    private static void exportAndSummarize() {
+        if (HISTOGRAMS.isEmpty() && COUNTERS.isEmpty()) return;
+
+        Path file = ConfigurationManager.getInstance().getMetricsFile();
+        export(file);
+        if (!ConfigurationManager.getInstance().isMetricsSummaryEnabled()) return;
+
+        // printed directly, the logging framework resets its handlers during shutdown
+        System.out.println("Driver metrics written to " + file.toAbsolutePath() + System.lineSeparator() + summary());
+    }
+
+    private static String labels(String... namesAndValues) {
+        StringBuilder labels = new StringBuilder("{");
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) labels.append(',');
+            labels.append(namesAndValues[i]).append("=\"").append(escape(namesAndValues[i + 1])).append('"');
+        }
+        return labels.append('}').toString();
+    }
+
+    private static String withLabel(String labels, String name, String value) {
+        return labels.substring(0, labels.length() - 1) + (labels.length() > 2 ? "," : "") + name + "=\"" + value + "\"}";
+    }
+
+    private static String escape(String value) {
+        return String.valueOf(value).replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String seconds(long micros) {
+        return String.valueOf(micros / 1_000_000.0);
+    }
+}
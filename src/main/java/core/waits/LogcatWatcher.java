@@ -0,0 +1,92 @@
+package core.waits;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Tails the logcat of a device through a local `adb logcat` process and raises a UI change signal for every line
+ * whose tag marks an activity, window, focus or keyboard transition. The lines are read on the host, watching
+ * costs the Appium server nothing.
+ */
+class LogcatWatcher {
+    private static final Logger LOGGER = Logger.getLogger(LogcatWatcher.class.getName());
+
+    // `-v tag` lines look like `I/wm_on_resume_called: [...]`
+    private static final Pattern TAG = Pattern.compile("^[VDIWEFS]/([^:(]+)");
+
+    // the adb processes outlive the JVM unless they are stopped
+    private static final Set<Process> PROCESSES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> PROCESSES.forEach(Process::destroy), "logcat-watcher-shutdown"));
+    }
+
+    private final Process process;
+
+    private LogcatWatcher(Process process) {
+        this.process = process;
+    }
+
+    /**
+     * Starts tailing the logcat of a device from now on.
+     *
+     * @param udid   the device serial
+     * @param tags   the tags, or tag prefixes, that signal a UI change
+     * @param signal the signal to raise
+     * @return the watcher, null if adb can't be started
+     */
+    static LogcatWatcher start(String udid, List<String> tags, UiChangeSignal signal) {
+        Process process;
+        try {
+            // `-T 1` skips the backlog, only lines logged from now on are read
+            process = new ProcessBuilder("adb", "-s", udid, "logcat", "-b", "events", "-b", "main", "-v", "tag", "-T", "1")
+                    .redirectErrorStream(true)
+                    .start();
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            LOGGER.info("Failed to tail the logcat of " + udid + ", UI changes are only detected from the page source: " + e.getMessage());
+            return null;
+        }
+        PROCESSES.add(process);
+
+        Thread.ofVirtual().name("logcat-watcher-" + udid).start(() -> read(process, tags, signal));
+        return new LogcatWatcher(process);
+    }
+
+    void stop() {
+        PROCESSES.remove(process);
+        process.destroy();
+    }
+
+    private static void read(Process process, List<String> tags, UiChangeSignal signal) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (isUiChange(line, tags)) signal.signal();
+            }
+        } catch (IOException e) {
+            // the process has been stopped
+        } finally {
+            PROCESSES.remove(process);
+        }
+    }
+
+    static boolean isUiChange(String line, List<String> tags) {
+        Matcher matcher = TAG.matcher(line);
+        if (!matcher.find()) return false;
+
+        String tag = matcher.group(1).trim();
+        for (String prefix : tags) {
+            if (tag.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+}
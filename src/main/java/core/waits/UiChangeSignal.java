@@ -0,0 +1,102 @@
+package core.waits;
+
+import config.ConfigurationManager;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Tells the waits of a session when the UI may have changed, so a wait condition is only checked again after a
+ * change instead of on every polling interval. Every change bumps a version, a waiter remembers the version it
+ * last checked at and sleeps until the version moves on.
+ * <p>
+ * Changes are signalled by
+ * <ul>
+ *     <li>the logcat of the device, activity, window, focus and keyboard transitions, see {@link LogcatWatcher}</li>
+ *     <li>the hierarchy cache, whenever a pulled page source differs from the previous one</li>
+ * </ul>
+ */
+public class UiChangeSignal {
+    private static final Map<WebDriver, UiChangeSignal> SIGNALS = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final List<String> LOGCAT_TAGS = ConfigurationManager.getInstance().getLogcatTags();
+
+    private final Object lock = new Object();
+    private long version;
+    private LogcatWatcher logcatWatcher;
+
+    private UiChangeSignal() {
+    }
+
+    /**
+     * Returns the change signal of a session. The logcat of the device is only watched while the waits run in
+     * {@link WaitEngine.Mode#EVENTS} mode.
+     *
+     * @param driver the driver of the session
+     * @return the change signal
+     */
+    public static UiChangeSignal of(WebDriver driver) {
+        return SIGNALS.computeIfAbsent(driver, key -> {
+            UiChangeSignal signal = new UiChangeSignal();
+            String udid = WaitEngine.MODE == WaitEngine.Mode.EVENTS ? udidOf(key) : null;
+            if (udid != null) signal.logcatWatcher = LogcatWatcher.start(udid, LOGCAT_TAGS, signal);
+            return signal;
+        });
+    }
+
+    /**
+     * Stops watching a session that is about to be quit.
+     *
+     * @param driver the driver of the session
+     */
+    public static void release(WebDriver driver) {
+        UiChangeSignal signal = SIGNALS.remove(driver);
+        if (signal != null && signal.logcatWatcher != null) signal.logcatWatcher.stop();
+    }
+
+    /**
+     * Records a UI change and wakes up every waiter.
+     */
+    public void signal() {
+        synchronized (lock) {
+            version++;
+            lock.notifyAll();
+        }
+    }
+
+    public long version() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    /**
+     * Waits until the UI changes after a version.
+     *
+     * @param since   the version the caller has seen
+     * @param timeout the longest time to wait
+     * @return the current version, the same as `since` if nothing changed in time
+     */
+    public long awaitChange(long since, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (lock) {
+            long remaining;
+            while (version == since && (remaining = deadline - System.nanoTime()) > 0) {
+                lock.wait(Math.max(1, remaining / 1_000_000));
+            }
+            return version;
+        }
+    }
+
+    private static String udidOf(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities hasCapabilities)) return null;
+
+        Object udid = hasCapabilities.getCapabilities().getCapability("appium:udid");
+        if (udid == null) udid = hasCapabilities.getCapabilities().getCapability("udid");
+        return udid == null ? null : udid.toString();
+    }
+}
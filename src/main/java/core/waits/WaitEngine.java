@@ -0,0 +1,151 @@
+package core.waits;
+
+import config.ConfigurationManager;
+import core.metrics.Metrics;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.support.ui.Sleeper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Owns every element wait in the framework. Implicit waits are turned off for the whole session, so a failed
+ * lookup costs one explicit timeout instead of an implicit wait stacked on top of an explicit one.
+ * The polling interval is tuned per locator from how long its element took to appear in earlier waits. In
+ * {@link Mode#EVENTS} mode conditions are checked again when the UI signals a change instead, see
+ * {@link UiChangeSignal}.
+ */
+public class WaitEngine {
+    public static final Duration DEFAULT_TIMEOUT = ConfigurationManager.getInstance().getWaitTimeout();
+
+    private static final Duration DEFAULT_POLLING_INTERVAL = ConfigurationManager.getInstance().getPollingInterval();
+    private static final Duration MIN_POLLING_INTERVAL = ConfigurationManager.getInstance().getMinPollingInterval();
+    private static final Duration MAX_POLLING_INTERVAL = ConfigurationManager.getInstance().getMaxPollingInterval();
+
+    static final Mode MODE = Mode.valueOf(ConfigurationManager.getInstance().getWaitMode());
+
+    // polls this many times during the usual appearance latency of a locator
+    private static final int POLLS_PER_APPEARANCE = 4;
+    // weight of the newest sample in the moving average of the appearance latency
+    private static final double SMOOTHING_FACTOR = 0.3;
+
+    // shared between sessions, the appearance latency of an element doesn't depend on the device it runs on
+    private static final Map<String, Double> APPEARANCE_LATENCIES_MILLIS = new ConcurrentHashMap<>();
+
+    private final WebDriver driver;
+    private final Duration timeout;
+
+    /**
+     * When a wait checks its condition again.
+     */
+    public enum Mode {
+        // at the polling interval tuned for the locator
+        POLL,
+        // when the UI signals a change, and at the tuned polling interval when it doesn't, UI changes inside an
+        // activity don't always show up in logcat
+        EVENTS
+    }
+
+    public WaitEngine(WebDriver driver) {
+        this(driver, DEFAULT_TIMEOUT);
+    }
+
+    public WaitEngine(WebDriver driver, Duration timeout) {
+        this.driver = driver;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Turns off the implicit wait of a session, the wait engine polls explicitly instead.
+     *
+     * @param driver the driver of the session
+     */
+    public static void disableImplicitWait(WebDriver driver) {
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+    }
+
+    /**
+     * Waits until the condition for an element is met, polling at the interval tuned for the element's locator or,
+     * in {@link Mode#EVENTS} mode, whenever the UI changes.
+     *
+     * @param element   the element the condition is about
+     * @param condition the condition to wait for
+     * @return the value returned by the condition
+     */
+    public <T> T until(WebElement element, Function<WebDriver, T> condition) {
+        String locator = String.valueOf(element);
+
+        long start = System.nanoTime();
+        T result;
+        try {
+            FluentWait<WebDriver> wait = MODE == Mode.EVENTS
+                    ? new FluentWait<>(driver, Clock.systemDefaultZone(), new ChangeSleeper(UiChangeSignal.of(driver)))
+                            .pollingEvery(pollingInterval(locator))
+                    : new FluentWait<>(driver).pollingEvery(pollingInterval(locator));
+            result = wait
+                    .withTimeout(timeout)
+                    .ignoring(NotFoundException.class)
+                    .until(condition);
+        } catch (TimeoutException e) {
+            Metrics.recordWait(locator, "timeout", System.nanoTime() - start);
+            throw e;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Metrics.recordWait(locator, "found", elapsed);
+        recordAppearanceLatency(locator, Duration.ofNanos(elapsed));
+        return result;
+    }
+
+    /**
+     * Returns the polling interval for a locator, a quarter of its usual appearance latency within fixed bounds.
+     *
+     * @param locator the locator description
+     * @return the polling interval
+     */
+    public static Duration pollingInterval(String locator) {
+        Double latency = APPEARANCE_LATENCIES_MILLIS.get(locator);
+        if (latency == null) return DEFAULT_POLLING_INTERVAL;
+
+        long interval = Math.round(latency / POLLS_PER_APPEARANCE);
+        interval = Math.max(MIN_POLLING_INTERVAL.toMillis(), Math.min(MAX_POLLING_INTERVAL.toMillis(), interval));
+        return Duration.ofMillis(interval);
+    }
+
+    /**
+     * Sleeps between two checks of a condition until the UI changes, at most for the polling interval.
+     */
+    private static class ChangeSleeper implements Sleeper {
+        private final UiChangeSignal signal;
+        private long seenVersion;
+
+        ChangeSleeper(UiChangeSignal signal) {
+            this.signal = signal;
+            this.seenVersion = signal.version();
+        }
+
+        @Override
+        public void sleep(Duration pollingInterval) throws InterruptedException {
+            long version = signal.awaitChange(seenVersion, pollingInterval);
+            if (version != seenVersion) {
+                // changes come in bursts, the condition is checked once the burst has settled
+                Thread.sleep(MIN_POLLING_INTERVAL);
+                version = signal.version();
+            }
+            seenVersion = version;
+        }
+    }
+
+    private static void recordAppearanceLatency(String locator, Duration latency) {
+        double sample = latency.toMillis();
+        APPEARANCE_LATENCIES_MILLIS.merge(locator, sample,
+                (average, newSample) -> average + SMOOTHING_FACTOR * (newSample - average));
+    }
+}
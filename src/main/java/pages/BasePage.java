@@ -1,34 +1,113 @@
 package pages;
 
+import config.ConfigurationManager;
+import core.metrics.Metrics;
+import core.waits.WaitEngine;
 import enums.Directions;
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 
 import org.openqa.selenium.*;
-import org.openqa.selenium.interactions.Actions;
-import org.openqa.selenium.interactions.PointerInput;
-import org.openqa.selenium.interactions.Sequence;
 import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import pages.gestures.Gesture;
+import pages.gestures.GestureEngine;
+import pages.gestures.ScrollEngine;
+import pages.gestures.Swipe;
+import pages.hierarchy.HierarchyCache;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.UiNode;
+import pages.hierarchy.XPathTranslator;
+import pages.text.TextEntry;
 
+import java.lang.reflect.Field;
 import java.time.Duration;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 public class BasePage {
     private static final Logger LOGGER = Logger.getLogger(BasePage.class.getName());
+    private static final AtomicLong DECORATIONS = new AtomicLong();
 
     private final AppiumDriver driver;
-    private final int MAX_RETRY_COUNT = 3;
+    private final WaitEngine waitEngine;
+    private final HierarchyCache hierarchyCache;
+    private final GestureEngine gestureEngine;
+    private final ScrollEngine scrollEngine;
+    private final TextEntry textEntry;
+    private final AppiumFieldDecorator fieldDecorator;
+    private final int MAX_RETRY_COUNT = ConfigurationManager.getInstance().getStaleElementAttempts();
+    private final long RETRY_BACKOFF_MILLIS = ConfigurationManager.getInstance().getRetryBackoffMillis();
 
     public BasePage(AppiumDriver driver) {
         this.driver = driver;
-        PageFactory.initElements(new AppiumFieldDecorator(driver), this);
+        this.waitEngine = new WaitEngine(driver);
+        this.hierarchyCache = HierarchyCache.of(driver);
+        this.gestureEngine = new GestureEngine(driver, hierarchyCache);
+        this.scrollEngine = new ScrollEngine(driver, hierarchyCache, this::swipe);
+        this.textEntry = new TextEntry(driver);
+        // the wait engine owns all timeouts, so the element locators must not wait on their own
+        this.fieldDecorator = new AppiumFieldDecorator(driver, Duration.ZERO);
+        PageFactory.initElements(fieldDecorator, this);
+        DECORATIONS.incrementAndGet();
     }
 
-    private void refreshElements() {
-        PageFactory.initElements(driver, this);
+    /**
+     * Returns the number of reflective element decorations performed during the run, whole pages and single fields.
+     */
+    public static long getDecorationCount() {
+        return DECORATIONS.get();
+    }
+
+    /**
+     * Re-resolves a stale element by decorating only the page field that holds it again, with the same Appium
+     * decorator the page was initialized with. Backs off exponentially before the element is used again.
+     *
+     * @param element    the stale element
+     * @param retryCount the number of the upcoming retry
+     * @return the re-resolved element, the element itself if no page field holds it
+     */
+    private WebElement refreshElement(WebElement element, int retryCount) {
+        StaleElementStats.record(String.valueOf(element));
+        Metrics.recordRetry(getClass().getSimpleName(), String.valueOf(element));
+        if (retryCount >= MAX_RETRY_COUNT) return element;
+
+        try {
+            Thread.sleep(RETRY_BACKOFF_MILLIS << (retryCount - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return element;
+        }
+
+        for (Field field : locatorFields()) {
+            if (fieldValue(field) == element) {
+                WebElement refreshedElement = (WebElement) fieldDecorator.decorate(field.getDeclaringClass().getClassLoader(), field);
+                DECORATIONS.incrementAndGet();
+                try {
+                    field.set(this, refreshedElement);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Failed to refresh the page field " + field.getName(), e);
+                }
+                return refreshedElement;
+            }
+        }
+        return element;
+    }
+
+    /**
+     * Builds the failure reported once an element has gone stale on every attempt, the helpers never hand back a
+     * made-up result instead.
+     *
+     * @param element      the stale element
+     * @param staleFailure the failure of the last attempt
+     */
+    private StaleElementReferenceException retriesExhausted(WebElement element, StaleElementReferenceException staleFailure) {
+        return new StaleElementReferenceException("The element went stale on all " + MAX_RETRY_COUNT + " attempts: " + element, staleFailure);
     }
 
     /**
@@ -37,7 +116,7 @@ public class BasePage {
      * @param element - element to wait for
      **/
     protected WebElement waitForElementToBeClickable(WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(10)).until(ExpectedConditions.elementToBeClickable(element));
+        return waitEngine.until(element, ExpectedConditions.elementToBeClickable(element));
     }
 
     /**
@@ -46,7 +125,24 @@ public class BasePage {
      * @param element - element to wait for
      **/
     protected WebElement waitForElementToBeVisible(WebElement element) {
-        return new WebDriverWait(driver, Duration.ofSeconds(10)).until(ExpectedConditions.visibilityOf(element));
+        return waitEngine.until(element, ExpectedConditions.visibilityOf(element));
+    }
+
+    /**
+     * waits for an xpath located element to be visible in the cached UI hierarchy, the page source is only
+     * pulled again while the element is missing
+     *
+     * @param element - element to wait for
+     * @param xpath   - the xpath locator of the element
+     **/
+    private UiNode waitForCachedElementToBeVisible(WebElement element, String xpath) {
+        return waitEngine.until(element, ignored -> {
+            UiNode node = hierarchyCache.find(xpath);
+            if (node != null && node.isDisplayed()) return node;
+
+            hierarchyCache.invalidate();
+            return null;
+        });
     }
 
     /**
@@ -54,20 +150,32 @@ public class BasePage {
      *
      * @param element element to be checked
      * @return boolean value (if the element is enabled)
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     public boolean isEnabled(WebElement element) {
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                WebElement foundElement = waitForElementToBeVisible(element);
-                return foundElement.isEnabled();
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            String xpath = xpathLocatorOf(element);
+            if (xpath != null) return waitForCachedElementToBeVisible(element, xpath).isEnabled();
+
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    WebElement foundElement = waitForElementToBeVisible(element);
+                    return foundElement.isEnabled();
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "isEnabled", elementLocator, System.nanoTime() - start);
         }
-        return false;
     }
 
     /**
@@ -75,20 +183,32 @@ public class BasePage {
      *
      * @param element element to be checked
      * @return boolean value (if the element is displayed)
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     public boolean isDisplayed(WebElement element) {
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                WebElement foundElement = waitForElementToBeVisible(element);
-                return foundElement.isDisplayed();
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            String xpath = xpathLocatorOf(element);
+            if (xpath != null) return waitForCachedElementToBeVisible(element, xpath).isDisplayed();
+
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    WebElement foundElement = waitForElementToBeVisible(element);
+                    return foundElement.isDisplayed();
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "isDisplayed", elementLocator, System.nanoTime() - start);
         }
-        return false;
     }
 
     /**
@@ -96,19 +216,30 @@ public class BasePage {
      * StaleElementReferenceException is encountered.
      *
      * @param element the WebElement to be clicked
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     protected void click(WebElement element) {
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                WebElement foundElement = waitForElementToBeClickable(element);
-                foundElement.click();
-                break;
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    WebElement foundElement = waitForElementToBeClickable(element);
+                    foundElement.click();
+                    hierarchyCache.invalidate();
+                    return;
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "click", elementLocator, System.nanoTime() - start);
         }
     }
 
@@ -118,127 +249,323 @@ public class BasePage {
      *
      * @param element the WebElement from which to retrieve the text
      * @return the text content of the WebElement
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     protected String getText(WebElement element) {
-        String elementText = "";
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                WebElement foundElement = waitForElementToBeVisible(element);
-                elementText = foundElement.getText();
-                break;
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            String xpath = xpathLocatorOf(element);
+            if (xpath != null) return waitForCachedElementToBeVisible(element, xpath).getText();
+
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    WebElement foundElement = waitForElementToBeVisible(element);
+                    return foundElement.getText();
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "getText", elementLocator, System.nanoTime() - start);
         }
-        return elementText;
     }
 
     /**
      * Types the specified text into the given WebElement, retrying up to a maximum count if a
-     * StaleElementReferenceException is encountered.
+     * StaleElementReferenceException is encountered. The text replaces the current value of the element.
      *
      * @param element the WebElement to type into
      * @param text    the text to type into the WebElement
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     protected void type(WebElement element, String text) {
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                WebElement foundElement = waitForElementToBeVisible(element);
-                foundElement.clear();
-                foundElement.sendKeys(text);
-                break;
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    WebElement foundElement = waitForElementToBeVisible(element);
+                    textEntry.replaceText(foundElement, text, cachedNodeOf(element, start));
+                    hierarchyCache.invalidate();
+                    return;
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "type", elementLocator, System.nanoTime() - start);
         }
     }
 
     /**
-     * Types the specified value into the given WebElement using the Actions class, retrying up to a
+     * Types the specified value into the given WebElement as keyboard input to the focused field, retrying up to a
      * maximum count if a StaleElementReferenceException is encountered.
      *
      * @param element the WebElement to type into
      * @param value   the value to type into the WebElement
+     * @throws StaleElementReferenceException if the element went stale on every attempt
      */
     protected void typeViaActions(WebElement element, String value) {
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            try {
-                waitForElementToBeVisible(element);
-
-                Actions actions = new Actions(driver);
-                actions.sendKeys(value).build().perform();
-                break;
-            } catch (StaleElementReferenceException e) {
-                retryCount++;
-                refreshElements();
-                LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            StaleElementReferenceException staleFailure = null;
+            int retryCount = 0;
+            while (retryCount < MAX_RETRY_COUNT) {
+                try {
+                    waitForElementToBeVisible(element);
+
+                    textEntry.typeIntoFocusedField(value);
+                    hierarchyCache.invalidate();
+                    return;
+                } catch (StaleElementReferenceException e) {
+                    staleFailure = e;
+                    retryCount++;
+                    element = refreshElement(element, retryCount);
+                    LOGGER.info("Retry " + retryCount + ": StaleElementReferenceException occurred. Retrying...");
+                }
             }
+            throw retriesExhausted(element, staleFailure);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "typeViaActions", elementLocator, System.nanoTime() - start);
         }
     }
 
-    // todo : improve the swipe(), swipeToElement() methods to know when the page is ready to be scrolled so that the action is optimized.
+    /**
+     * Captures the displayed, enabled and text state of several page elements from the cached UI hierarchy, which
+     * costs at most a single page source request. Later reads from the returned snapshot don't go to the device.
+     *
+     * @param elements the page elements to capture, all elements of the page if none are given
+     * @return the captured page snapshot
+     */
+    public PageSnapshot captureState(WebElement... elements) {
+        Map<WebElement, String> xpaths = new IdentityHashMap<>();
+        for (Field field : locatorFields()) {
+            WebElement fieldElement = fieldValue(field);
+            if (elements.length == 0 || contains(elements, fieldElement)) {
+                xpaths.put(fieldElement, toXPath(field.getAnnotation(AndroidFindBy.class)));
+            }
+        }
+
+        if (elements.length > xpaths.size()) {
+            throw new IllegalArgumentException("Only elements declared by " + getClass().getSimpleName() + " can be captured.");
+        }
+        return new PageSnapshot(hierarchyCache.get(), xpaths);
+    }
 
     /**
-     * Performs a swipe gesture in the specified direction.
+     * Returns the xpath locator of a page element, a UiSelector locator is translated into its xpath equivalent.
      *
-     * @param direction the direction to swipe (UP, DOWN, LEFT, RIGHT)
+     * @param element the page element
+     * @return the xpath of the element, null if the element isn't located by xpath or a translatable UiSelector
      */
-    private void swipe(Directions direction) {
-        // Get the dimensions of the screen
-        Dimension dimension = driver.manage().window().getSize();
+    private String xpathLocatorOf(WebElement element) {
+        AndroidFindBy locator = locatorOf(element);
+        if (locator == null) return null;
+        if (!locator.xpath().isEmpty()) return locator.xpath();
+        return locator.uiAutomator().isEmpty() ? null : XPathTranslator.fromUiSelector(locator.uiAutomator());
+    }
+
+    /**
+     * Returns the node of a page element in the cached UI hierarchy without pulling the page source. Only a
+     * hierarchy pulled after the given time is used, an older one may not show the current state of the element.
+     *
+     * @param element  the page element
+     * @param nanoTime the {@link System#nanoTime()} the hierarchy must have been pulled after
+     * @return the cached node, null if no fresh hierarchy is cached or the element can't be found in it
+     */
+    private UiNode cachedNodeOf(WebElement element, long nanoTime) {
+        UiHierarchy hierarchy = hierarchyCache.peekPulledSince(nanoTime);
+        AndroidFindBy locator = locatorOf(element);
+        if (hierarchy == null || locator == null) return null;
+
+        try {
+            return hierarchy.find(toXPath(locator));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the locator annotation of a page element.
+     *
+     * @param element the page element
+     * @return the locator of the element, null if no page field holds the element
+     */
+    private AndroidFindBy locatorOf(WebElement element) {
+        for (Field field : locatorFields()) {
+            if (fieldValue(field) == element) return field.getAnnotation(AndroidFindBy.class);
+        }
+        return null;
+    }
 
-        // Calculate the starting point for the swipe
-        int startX = dimension.getWidth() / 2;
-        int startY = dimension.getHeight() / 2;
-        int endX = startX;
-        int endY = startY;
+    private List<Field> locatorFields() {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> type = getClass(); type != BasePage.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (WebElement.class.equals(field.getType()) && field.isAnnotationPresent(AndroidFindBy.class)) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private WebElement fieldValue(Field field) {
+        try {
+            return (WebElement) field.get(this);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Failed to read the page field " + field.getName(), e);
+        }
+    }
+
+    private static boolean contains(WebElement[] elements, WebElement element) {
+        // compared by identity, equals() on an element proxy would look the element up on the device
+        for (WebElement candidate : elements) {
+            if (candidate == element) return true;
+        }
+        return false;
+    }
 
-        // Determine the end point based on the swipe direction
-        switch (direction) {
-            case DOWN -> endY = (int) (dimension.getHeight() * 0.25);
-            case UP -> endY = (int) (dimension.getHeight() * 1.25);
-            case LEFT -> endX = (int) (dimension.getWidth() * 0.25);
-            case RIGHT -> endX = (int) (dimension.getWidth() * 1.25);
+    /**
+     * Translates an Android locator into the equivalent xpath over the UiAutomator2 page source.
+     *
+     * @param locator the locator annotation
+     * @return the xpath expression
+     */
+    public static String toXPath(AndroidFindBy locator) {
+        if (!locator.xpath().isEmpty()) return locator.xpath();
+        if (!locator.accessibility().isEmpty()) return "//*[@content-desc=" + quote(locator.accessibility()) + "]";
+        if (!locator.id().isEmpty()) {
+            return "//*[@resource-id=" + quote(locator.id()) + " or substring-after(@resource-id, ':id/')=" + quote(locator.id()) + "]";
+        }
+        if (!locator.className().isEmpty()) return "//" + locator.className();
+        if (!locator.uiAutomator().isEmpty()) {
+            String xpath = XPathTranslator.fromUiSelector(locator.uiAutomator());
+            if (xpath != null) return xpath;
         }
 
-        // Create a pointer input sequence to perform the swipe
-        PointerInput pointerInput = new PointerInput(PointerInput.Kind.TOUCH, "pointerInput");
-        Sequence sequence = new Sequence(pointerInput, 1)
-                .addAction(pointerInput.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY))
-                .addAction(pointerInput.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
-                .addAction(pointerInput.createPointerMove(Duration.ofMillis(100), PointerInput.Origin.viewport(), endX, endY))
-                .addAction(pointerInput.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+        throw new IllegalArgumentException("Unsupported locator for page snapshots: " + locator);
+    }
 
-        // Perform the swipe gesture
-        driver.perform(Collections.singleton(sequence));
+    /**
+     * Translates an Android locator into an xpath, see {@link #toXPath(AndroidFindBy)}.
+     *
+     * @param locator the locator annotation
+     * @return the xpath of the locator, null if the locator has no xpath equivalent
+     */
+    private static String xpathOrNull(AndroidFindBy locator) {
+        try {
+            return toXPath(locator);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     /**
-     * Swipes in the specified direction until the given WebElement is visible on the screen.
+     * Translates an Android locator into the equivalent UiSelector.
+     *
+     * @param locator the locator annotation
+     * @return the UiSelector expression, null if the locator has no UiSelector equivalent
+     */
+    public static String toUiSelector(AndroidFindBy locator) {
+        if (!locator.uiAutomator().isEmpty()) return locator.uiAutomator();
+        if (!locator.accessibility().isEmpty()) return "new UiSelector().description(\"" + escape(locator.accessibility()) + "\")";
+        if (!locator.id().isEmpty()) {
+            return locator.id().contains(":id/")
+                    ? "new UiSelector().resourceId(\"" + escape(locator.id()) + "\")"
+                    : "new UiSelector().resourceIdMatches(\".*:id/" + escape(locator.id()) + "\")";
+        }
+        return null;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String quote(String value) {
+        return value.contains("'") ? "\"" + value + "\"" : "'" + value + "'";
+    }
+
+    /**
+     * Performs a gesture, compiled once per screen geometry by the gesture engine.
+     *
+     * @param gesture the gesture to perform, e.g. a {@link pages.gestures.LongPress} or a {@link pages.gestures.Pinch}
+     */
+    public void performGesture(Gesture gesture) {
+        long start = System.nanoTime();
+        try {
+            gestureEngine.perform(gesture);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "performGesture", gesture.getClass().getSimpleName(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Performs a swipe gesture in the specified direction.
+     *
+     * @param direction the direction to swipe (UP, DOWN, LEFT, RIGHT)
+     */
+    private void swipe(Directions direction) {
+        long start = System.nanoTime();
+        gestureEngine.perform(Swipe.of(direction));
+        // every swipe is a step of its own, a long search shows up while it's still swiping
+        Metrics.recordHelper(getClass().getSimpleName(), "swipe", direction.name(), System.nanoTime() - start);
+    }
+
+    /**
+     * Swipes in the specified direction until the given WebElement is visible on the screen. Page elements are
+     * scrolled to by the scroll engine, which stops as soon as the element is on the screen or the list ends.
      *
      * @param element   the WebElement to find
      * @param direction the direction to swipe (UP, DOWN, LEFT, RIGHT)
+     * @throws NoSuchElementException if the element isn't on the screen once the list ends or the swipes run out
      */
     public void swipeToElement(WebElement element, Directions direction) {
-        int swipesCount = 0;
-        final int MAX_SWIPES_COUNT = 5;
-
-        while (swipesCount < MAX_SWIPES_COUNT) {
-            try {
-                if (element.isDisplayed()) return;
-            } catch (NoSuchElementException | StaleElementReferenceException e) {
-                // Element not found or stale, continue to swipe
+        long start = System.nanoTime();
+        String elementLocator = String.valueOf(element);
+        try {
+            AndroidFindBy locator = locatorOf(element);
+            String xpath = locator == null ? null : xpathOrNull(locator);
+            if (xpath != null) {
+                if (!scrollEngine.scrollTo(xpath, toUiSelector(locator), direction)) {
+                    throw new NoSuchElementException("Reached the end of the list swiping " + direction + " without finding " + element);
+                }
+                return;
             }
 
-            swipe(direction);
-            swipesCount++;
+            int swipesCount = 0;
+            final int MAX_SWIPES_COUNT = ConfigurationManager.getInstance().getMaxSwipes();
+
+            while (true) {
+                try {
+                    if (element.isDisplayed()) return;
+                } catch (NoSuchElementException | StaleElementReferenceException e) {
+                    // Element not found or stale, continue to swipe
+                }
+                // the screen after the last swipe is checked too
+                if (swipesCount == MAX_SWIPES_COUNT) break;
+
+                swipe(direction);
+                swipesCount++;
+            }
+            throw new NoSuchElementException("Swiped " + direction + " " + MAX_SWIPES_COUNT + " times without finding " + element);
+        } finally {
+            Metrics.recordHelper(getClass().getSimpleName(), "swipeToElement", elementLocator, System.nanoTime() - start);
         }
     }
-}
\ No newline at end of file
+}
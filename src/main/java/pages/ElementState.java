@@ -0,0 +1,13 @@
+package pages;
+
+/**
+ * The state of a page element as captured in a page snapshot.
+ *
+ * @param present   whether the element is part of the UI hierarchy
+ * @param displayed whether the element is displayed
+ * @param enabled   whether the element is enabled
+ * @param text      the text of the element, empty if the element isn't present
+ */
+public record ElementState(boolean present, boolean displayed, boolean enabled, String text) {
+    public static final ElementState ABSENT = new ElementState(false, false, false, "");
+}
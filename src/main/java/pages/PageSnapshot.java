@@ -0,0 +1,55 @@
+package pages;
+
+import org.openqa.selenium.WebElement;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.UiNode;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The displayed, enabled and text state of several page elements, read from a single page source dump.
+ * Reads are answered from the snapshot and never go to the device, so the snapshot goes out of date as soon
+ * as the UI changes.
+ */
+public class PageSnapshot {
+    // keyed by identity, equals() on an element proxy would look the element up on the device
+    private final Map<WebElement, ElementState> states = new IdentityHashMap<>();
+
+    PageSnapshot(UiHierarchy hierarchy, Map<WebElement, String> xpaths) {
+        for (Map.Entry<WebElement, String> entry : xpaths.entrySet()) {
+            UiNode node = hierarchy.find(entry.getValue());
+            states.put(entry.getKey(), node == null ? ElementState.ABSENT : stateOf(node));
+        }
+    }
+
+    /**
+     * Returns the captured state of an element.
+     *
+     * @param element the element, must be one of the elements the snapshot was captured for
+     * @return the captured element state
+     */
+    public ElementState stateOf(WebElement element) {
+        ElementState state = states.get(element);
+        if (state == null) {
+            throw new IllegalArgumentException("The element was not part of the snapshot: " + element);
+        }
+        return state;
+    }
+
+    public boolean isDisplayed(WebElement element) {
+        return stateOf(element).displayed();
+    }
+
+    public boolean isEnabled(WebElement element) {
+        return stateOf(element).enabled();
+    }
+
+    public String getText(WebElement element) {
+        return stateOf(element).text();
+    }
+
+    static ElementState stateOf(UiNode node) {
+        return new ElementState(true, node.isDisplayed(), node.isEnabled(), node.getText());
+    }
+}
@@ -0,0 +1,34 @@
+package pages;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often the element of each locator went stale during the run.
+ */
+public class StaleElementStats {
+    private static final Map<String, LongAdder> STALE_COUNTS = new ConcurrentHashMap<>();
+
+    private StaleElementStats() {
+    }
+
+    static void record(String locator) {
+        STALE_COUNTS.computeIfAbsent(locator, key -> new LongAdder()).increment();
+    }
+
+    public static long count(String locator) {
+        LongAdder count = STALE_COUNTS.get(locator);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Returns the stale counts of all locators that went stale at least once, sorted by locator.
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        STALE_COUNTS.forEach((locator, count) -> snapshot.put(locator, count.sum()));
+        return snapshot;
+    }
+}
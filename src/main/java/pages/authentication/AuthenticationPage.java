@@ -31,7 +31,8 @@ public class AuthenticationPage extends BasePage {
     @AndroidFindBy(accessibility = "test-Error message")
     WebElement errorMessage;
 
-    @AndroidFindBy(xpath = "//android.view.ViewGroup[@content-desc='test-Error message'] //android.widget.TextView")
+    @AndroidFindBy(uiAutomator = "new UiSelector().className(\"android.view.ViewGroup\").description(\"test-Error message\")"
+            + ".childSelector(new UiSelector().className(\"android.widget.TextView\"))")
     WebElement errorMessageTextView;
 
 
@@ -70,6 +71,10 @@ public class AuthenticationPage extends BasePage {
         return getText(passwordField);
     }
 
+    public WebElement getPasswordField() {
+        return passwordField;
+    }
+
     public void clickLoginBtn() {
         click(loginBtn);
     }
@@ -0,0 +1,40 @@
+package pages.gestures;
+
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+
+/**
+ * Builds the pointer sequences of single fingers.
+ */
+final class Fingers {
+
+    private Fingers() {
+    }
+
+    /**
+     * Touches a point, moves to another one in the given time and lifts the finger.
+     */
+    static Sequence drag(int finger, int startX, int startY, int endX, int endY, Duration duration) {
+        PointerInput pointerInput = new PointerInput(PointerInput.Kind.TOUCH, "finger" + finger);
+        return new Sequence(pointerInput, 0)
+                .addAction(pointerInput.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), startX, startY))
+                .addAction(pointerInput.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                .addAction(pointerInput.createPointerMove(duration, PointerInput.Origin.viewport(), endX, endY))
+                .addAction(pointerInput.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+    }
+
+    /**
+     * Touches a point, holds it for the given time and lifts the finger.
+     */
+    static Sequence press(int finger, int x, int y, Duration duration) {
+        PointerInput pointerInput = new PointerInput(PointerInput.Kind.TOUCH, "finger" + finger);
+        return new Sequence(pointerInput, 0)
+                .addAction(pointerInput.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y))
+                .addAction(pointerInput.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                .addAction(new Pause(pointerInput, duration))
+                .addAction(pointerInput.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+    }
+}
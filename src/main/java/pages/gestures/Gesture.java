@@ -0,0 +1,20 @@
+package pages.gestures;
+
+import org.openqa.selenium.interactions.Sequence;
+
+import java.util.List;
+
+/**
+ * A touch gesture described independently of the screen geometry. Implementations are records, their equality is
+ * what lets the {@link GestureEngine} reuse the compiled action payload of a gesture.
+ */
+public interface Gesture {
+
+    /**
+     * Builds the W3C pointer sequences of the gesture, one per finger.
+     *
+     * @param viewport the screen geometry
+     * @return the pointer sequences
+     */
+    List<Sequence> compile(Viewport viewport);
+}
@@ -0,0 +1,109 @@
+package pages.gestures;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.SessionId;
+import pages.hierarchy.HierarchyCache;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.UiNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Performs gestures with a single command. Every gesture is compiled once per screen geometry into the JSON ready
+ * W3C actions payload, which is cached for all sessions. The geometry is read from the cached UI hierarchy when
+ * one is available, and otherwise queried once per session, so a repeated gesture costs no extra round trips.
+ */
+public class GestureEngine {
+    // bounds the cache when gestures are compiled for many distinct points
+    private static final int MAX_COMPILED_GESTURES = 1024;
+
+    private static final Map<CompiledGesture, Map<String, Object>> PAYLOADS = new ConcurrentHashMap<>();
+    private static final Map<SessionId, Viewport> VIEWPORTS = new ConcurrentHashMap<>();
+
+    private final AppiumDriver driver;
+    private final HierarchyCache hierarchyCache;
+
+    private record CompiledGesture(Gesture gesture, Viewport viewport) {
+    }
+
+    /**
+     * @param driver         the driver of the session
+     * @param hierarchyCache the hierarchy cache of the session, invalidated by every gesture
+     */
+    public GestureEngine(AppiumDriver driver, HierarchyCache hierarchyCache) {
+        this.driver = driver;
+        this.hierarchyCache = hierarchyCache;
+    }
+
+    /**
+     * Performs a gesture.
+     *
+     * @param gesture the gesture to perform
+     */
+    public void perform(Gesture gesture) {
+        driver.execute(DriverCommand.ACTIONS, payload(gesture, viewport()));
+        hierarchyCache.invalidate();
+    }
+
+    /**
+     * Drops the geometry of the session, the next gesture queries it again. Call it after rotating the screen when
+     * no page source has been read since.
+     */
+    public void invalidateViewport() {
+        VIEWPORTS.remove(driver.getSessionId());
+    }
+
+    /**
+     * Returns the compiled actions payload of a gesture.
+     *
+     * @param gesture  the gesture
+     * @param viewport the screen geometry
+     * @return the payload of the W3C actions command
+     */
+    public static Map<String, Object> payload(Gesture gesture, Viewport viewport) {
+        CompiledGesture key = new CompiledGesture(gesture, viewport);
+        Map<String, Object> payload = PAYLOADS.get(key);
+        if (payload != null) return payload;
+
+        if (PAYLOADS.size() >= MAX_COMPILED_GESTURES) PAYLOADS.clear();
+        return PAYLOADS.computeIfAbsent(key, compiled ->
+                Map.of("actions", compiled.gesture().compile(compiled.viewport()).stream().map(Sequence::encode).toList()));
+    }
+
+    private Viewport viewport() {
+        SessionId sessionId = driver.getSessionId();
+
+        // the page source reports the geometry and the rotation for free whenever it has been read anyway
+        Viewport fromHierarchy = viewportOf(hierarchyCache.peek());
+        if (fromHierarchy != null) {
+            VIEWPORTS.put(sessionId, fromHierarchy);
+            return fromHierarchy;
+        }
+
+        return VIEWPORTS.computeIfAbsent(sessionId, key -> {
+            Dimension dimension = driver.manage().window().getSize();
+            return new Viewport(dimension.getWidth(), dimension.getHeight(), 0);
+        });
+    }
+
+    private static Viewport viewportOf(UiHierarchy hierarchy) {
+        if (hierarchy == null || hierarchy.getDocument().getChildren().isEmpty()) return null;
+
+        UiNode root = hierarchy.getDocument().getChildren().get(0);
+        String width = root.attribute("width");
+        String height = root.attribute("height");
+        if (width == null || height == null) return null;
+
+        try {
+            String rotation = root.attribute("rotation");
+            return new Viewport(Integer.parseInt(width), Integer.parseInt(height), rotation == null ? 0 : Integer.parseInt(rotation));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package pages.gestures;
+
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Touches a point of the screen and holds it.
+ *
+ * @param x        the horizontal position, as a fraction of the width
+ * @param y        the vertical position, as a fraction of the height
+ * @param duration the time the point is held
+ */
+public record LongPress(double x, double y, Duration duration) implements Gesture {
+    private static final Duration LONG_PRESS_DURATION = Duration.ofMillis(1000);
+
+    public static LongPress at(double x, double y) {
+        return new LongPress(x, y, LONG_PRESS_DURATION);
+    }
+
+    @Override
+    public List<Sequence> compile(Viewport viewport) {
+        return List.of(Fingers.press(0, viewport.x(x), viewport.y(y), duration));
+    }
+}
@@ -0,0 +1,34 @@
+package pages.gestures;
+
+import enums.Directions;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A swipe performed by several fingers side by side, spread evenly across the screen.
+ *
+ * @param fingers the number of fingers
+ * @param swipe   the swipe every finger performs
+ */
+public record MultiFingerSwipe(int fingers, Swipe swipe) implements Gesture {
+
+    public MultiFingerSwipe {
+        if (fingers < 1) throw new IllegalArgumentException("A swipe needs at least one finger, got " + fingers);
+    }
+
+    public static MultiFingerSwipe of(int fingers, Directions direction) {
+        return new MultiFingerSwipe(fingers, Swipe.of(direction));
+    }
+
+    @Override
+    public List<Sequence> compile(Viewport viewport) {
+        List<Sequence> sequences = new ArrayList<>(fingers);
+        for (int finger = 0; finger < fingers; finger++) {
+            // the fingers are spread evenly on the axis across the swipe
+            sequences.add(swipe.compile(finger, viewport, (finger + 1.0) / (fingers + 1)));
+        }
+        return sequences;
+    }
+}
@@ -0,0 +1,35 @@
+package pages.gestures;
+
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Two fingers moving apart or together on the horizontal axis through the center of the screen.
+ *
+ * @param startSpread the distance between the fingers when they touch the screen, as a fraction of the width
+ * @param endSpread   the distance between the fingers when they are lifted, as a fraction of the width
+ * @param duration    the time the fingers take to move
+ */
+public record Pinch(double startSpread, double endSpread, Duration duration) implements Gesture {
+    private static final double NARROW_SPREAD = 0.1;
+    private static final double WIDE_SPREAD = 0.8;
+    private static final Duration PINCH_DURATION = Duration.ofMillis(300);
+
+    public static Pinch zoomIn() {
+        return new Pinch(NARROW_SPREAD, WIDE_SPREAD, PINCH_DURATION);
+    }
+
+    public static Pinch zoomOut() {
+        return new Pinch(WIDE_SPREAD, NARROW_SPREAD, PINCH_DURATION);
+    }
+
+    @Override
+    public List<Sequence> compile(Viewport viewport) {
+        int y = viewport.y(0.5);
+        return List.of(
+                Fingers.drag(0, viewport.x(0.5 - startSpread / 2), y, viewport.x(0.5 - endSpread / 2), y, duration),
+                Fingers.drag(1, viewport.x(0.5 + startSpread / 2), y, viewport.x(0.5 + endSpread / 2), y, duration));
+    }
+}
@@ -0,0 +1,215 @@
+package pages.gestures;
+
+import config.ConfigurationManager;
+import enums.Directions;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.SessionId;
+import pages.hierarchy.HierarchyCache;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.UiNode;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Scrolls until a target element is on the screen, and not a gesture further. The engine waits for the UI to
+ * settle before it scrolls, lets UiAutomator scroll the target into view when the target has a UiSelector,
+ * sizes every scroll to the remaining distance when the target is already laid out off-screen, and stops as soon
+ * as the end of the list is reached.
+ */
+public class ScrollEngine {
+    private static final int MAX_SETTLE_CHECKS = 5;
+    private static final int MAX_SCROLLS = ConfigurationManager.getInstance().getMaxScrolls();
+
+    private static final double DEFAULT_SCROLL_PERCENT = 0.75;
+    private static final double MIN_SCROLL_PERCENT = 0.1;
+    // keeps the target clear of the edge of the scrollable area once it has been scrolled into view
+    private static final double EDGE_MARGIN_PERCENT = 0.05;
+
+    // sessions whose server doesn't support `mobile: scrollGesture`
+    private static final Set<SessionId> SCROLL_GESTURE_UNSUPPORTED = ConcurrentHashMap.newKeySet();
+
+    private final AppiumDriver driver;
+    private final HierarchyCache hierarchyCache;
+    private final Consumer<Directions> fallbackSwipe;
+
+    /**
+     * @param driver         the driver of the session
+     * @param hierarchyCache the hierarchy cache of the session
+     * @param fallbackSwipe  performs a plain swipe when the server can't scroll on its own
+     */
+    public ScrollEngine(AppiumDriver driver, HierarchyCache hierarchyCache, Consumer<Directions> fallbackSwipe) {
+        this.driver = driver;
+        this.hierarchyCache = hierarchyCache;
+        this.fallbackSwipe = fallbackSwipe;
+    }
+
+    /**
+     * Scrolls in the specified direction until the target is on the screen. UiAutomator only scrolls a target into
+     * view forward, DOWN or LEFT, from the beginning of the list, so a target searched UP or RIGHT is always scrolled
+     * to with `mobile: scrollGesture` in that direction.
+     *
+     * @param xpath      the xpath of the target in the UI hierarchy
+     * @param uiSelector the UiSelector of the target, null if the target can't be expressed as one
+     * @param direction  the direction to swipe (UP, DOWN, LEFT, RIGHT)
+     * @return true if the target is on the screen, false if the end of the list was reached without finding it
+     */
+    public boolean scrollTo(String xpath, String uiSelector, Directions direction) {
+        UiHierarchy hierarchy = hierarchyCache.get();
+        if (isOnScreen(hierarchy, xpath)) return true;
+
+        hierarchy = waitForSettledUi(hierarchy);
+        if (isOnScreen(hierarchy, xpath)) return true;
+
+        if (uiSelector != null && isForward(direction) && scrollIntoView(uiSelector, direction)) return true;
+
+        for (int scroll = 0; scroll < MAX_SCROLLS; scroll++) {
+            boolean canScrollMore = scroll(hierarchy, xpath, direction);
+
+            hierarchyCache.invalidate();
+            UiHierarchy scrolled = hierarchyCache.get();
+            if (isOnScreen(scrolled, xpath)) return true;
+
+            // nothing moved, the end of the list has been reached
+            if (!canScrollMore || scrolled.getSourceHash() == hierarchy.getSourceHash()) return false;
+            hierarchy = scrolled;
+        }
+        return false;
+    }
+
+    /**
+     * Pulls the hierarchy until two consecutive dumps are identical, which means no animation or transition is
+     * still running.
+     */
+    private UiHierarchy waitForSettledUi(UiHierarchy hierarchy) {
+        for (int check = 0; check < MAX_SETTLE_CHECKS; check++) {
+            hierarchyCache.invalidate();
+            UiHierarchy current = hierarchyCache.get();
+            if (current.getSourceHash() == hierarchy.getSourceHash()) return current;
+            hierarchy = current;
+        }
+        return hierarchy;
+    }
+
+    private boolean scrollIntoView(String uiSelector, Directions direction) {
+        String scrollable = "new UiScrollable(new UiSelector().scrollable(true))"
+                + (direction == Directions.LEFT || direction == Directions.RIGHT ? ".setAsHorizontalList()" : "");
+        try {
+            driver.findElement(AppiumBy.androidUIAutomator(scrollable + ".scrollIntoView(" + uiSelector + ")"));
+            return true;
+        } catch (NoSuchElementException e) {
+            return false;
+        } catch (WebDriverException e) {
+            // no scrollable container on the screen
+            return false;
+        } finally {
+            hierarchyCache.invalidate();
+        }
+    }
+
+    /**
+     * A forward scroll reveals the content further down or to the right, the way UiScrollable scrolls.
+     */
+    private static boolean isForward(Directions direction) {
+        return direction == Directions.DOWN || direction == Directions.LEFT;
+    }
+
+    private boolean scroll(UiHierarchy hierarchy, String xpath, Directions direction) {
+        UiNode scrollable = hierarchy.findScrollable();
+        int[] area = scrollable != null ? scrollable.getBounds() : screenBounds(hierarchy.getDocument());
+
+        if (area == null || SCROLL_GESTURE_UNSUPPORTED.contains(driver.getSessionId())) {
+            fallbackSwipe.accept(direction);
+            return true;
+        }
+
+        try {
+            Object canScrollMore = driver.executeScript("mobile: scrollGesture", Map.of(
+                    "left", area[0],
+                    "top", area[1],
+                    "width", area[2] - area[0],
+                    "height", area[3] - area[1],
+                    "direction", gestureDirection(direction),
+                    "percent", scrollPercent(hierarchy.find(xpath), area, direction)));
+            return !Boolean.FALSE.equals(canScrollMore);
+        } catch (UnsupportedCommandException | InvalidArgumentException e) {
+            SCROLL_GESTURE_UNSUPPORTED.add(driver.getSessionId());
+            fallbackSwipe.accept(direction);
+            return true;
+        }
+    }
+
+    /**
+     * Sizes a scroll to the distance between the target and the edge of the scrollable area, the default size is
+     * used while the target isn't laid out yet.
+     */
+    static double scrollPercent(UiNode target, int[] area, Directions direction) {
+        int[] bounds = target == null ? null : target.getBounds();
+        if (bounds == null) return DEFAULT_SCROLL_PERCENT;
+
+        int distance = switch (direction) {
+            case DOWN -> bounds[3] - area[3];
+            case UP -> area[1] - bounds[1];
+            case LEFT -> bounds[2] - area[2];
+            case RIGHT -> area[0] - bounds[0];
+        };
+        int size = direction == Directions.UP || direction == Directions.DOWN ? area[3] - area[1] : area[2] - area[0];
+        if (distance <= 0 || size <= 0) return DEFAULT_SCROLL_PERCENT;
+
+        double percent = (double) distance / size + EDGE_MARGIN_PERCENT;
+        return Math.max(MIN_SCROLL_PERCENT, Math.min(1.0, percent));
+    }
+
+    /**
+     * Maps a swipe direction to the scroll direction of `mobile: scrollGesture`, which names the content that is
+     * revealed rather than the way the finger moves.
+     */
+    private static String gestureDirection(Directions direction) {
+        return switch (direction) {
+            case DOWN -> "down";
+            case UP -> "up";
+            case LEFT -> "right";
+            case RIGHT -> "left";
+        };
+    }
+
+    private static boolean isOnScreen(UiHierarchy hierarchy, String xpath) {
+        UiNode node = hierarchy.find(xpath);
+        if (node == null || !node.isDisplayed()) return false;
+
+        UiNode scrollable = hierarchy.findScrollable();
+        int[] area = scrollable != null && isDescendant(node, scrollable) ? scrollable.getBounds() : null;
+        int[] bounds = node.getBounds();
+        if (area == null || bounds == null) return true;
+
+        // the center of the target has to be inside the scrollable area to be tappable
+        int centerX = (bounds[0] + bounds[2]) / 2;
+        int centerY = (bounds[1] + bounds[3]) / 2;
+        return centerX >= area[0] && centerX <= area[2] && centerY >= area[1] && centerY <= area[3];
+    }
+
+    private static boolean isDescendant(UiNode node, UiNode ancestor) {
+        for (UiNode parent = node.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == ancestor) return true;
+        }
+        return false;
+    }
+
+    private static int[] screenBounds(UiNode node) {
+        for (UiNode child : node.getChildren()) {
+            int[] bounds = child.getBounds();
+            if (bounds != null) return bounds;
+
+            bounds = screenBounds(child);
+            if (bounds != null) return bounds;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package pages.gestures;
+
+import enums.Directions;
+import org.openqa.selenium.interactions.Sequence;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A single finger swipe centered on the screen. The direction is the direction the content is moved towards:
+ * swiping DOWN moves the finger up and reveals the content below.
+ *
+ * @param direction the direction to swipe (UP, DOWN, LEFT, RIGHT)
+ * @param distance  the distance the finger travels, as a fraction of the screen
+ * @param duration  the time the finger takes to travel the distance
+ */
+public record Swipe(Directions direction, double distance, Duration duration) implements Gesture {
+    private static final double SWIPE_DISTANCE = 0.25;
+    private static final Duration SWIPE_DURATION = Duration.ofMillis(100);
+
+    private static final double FLING_DISTANCE = 0.6;
+    private static final Duration FLING_DURATION = Duration.ofMillis(40);
+
+    public static Swipe of(Directions direction) {
+        return new Swipe(direction, SWIPE_DISTANCE, SWIPE_DURATION);
+    }
+
+    /**
+     * Returns a long, fast swipe that leaves the content scrolling after the finger is lifted.
+     */
+    public static Swipe fling(Directions direction) {
+        return new Swipe(direction, FLING_DISTANCE, FLING_DURATION);
+    }
+
+    @Override
+    public List<Sequence> compile(Viewport viewport) {
+        return List.of(compile(0, viewport, 0.5));
+    }
+
+    /**
+     * Builds the sequence of one finger of the swipe.
+     *
+     * @param finger   the finger number
+     * @param viewport the screen geometry
+     * @param across   the position on the axis across the swipe, as a fraction of the screen
+     */
+    Sequence compile(int finger, Viewport viewport, double across) {
+        double start = 0.5 + distance / 2;
+        double end = 0.5 - distance / 2;
+
+        return switch (direction) {
+            case DOWN -> Fingers.drag(finger, viewport.x(across), viewport.y(start), viewport.x(across), viewport.y(end), duration);
+            case UP -> Fingers.drag(finger, viewport.x(across), viewport.y(end), viewport.x(across), viewport.y(start), duration);
+            case LEFT -> Fingers.drag(finger, viewport.x(start), viewport.y(across), viewport.x(end), viewport.y(across), duration);
+            case RIGHT -> Fingers.drag(finger, viewport.x(end), viewport.y(across), viewport.x(start), viewport.y(across), duration);
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package pages.gestures;
+
+/**
+ * The screen geometry gestures are compiled for. Gesture coordinates are given as fractions of the viewport and
+ * are clamped to it, so no compiled gesture points outside the screen.
+ *
+ * @param width    the width in pixels
+ * @param height   the height in pixels
+ * @param rotation the rotation the page source reports, 0 when it isn't known
+ */
+public record Viewport(int width, int height, int rotation) {
+
+    /**
+     * Returns the horizontal pixel of a fraction of the width, clamped to the viewport.
+     */
+    public int x(double fraction) {
+        return clamp(fraction, width);
+    }
+
+    /**
+     * Returns the vertical pixel of a fraction of the height, clamped to the viewport.
+     */
+    public int y(double fraction) {
+        return clamp(fraction, height);
+    }
+
+    private static int clamp(double fraction, int size) {
+        return (int) Math.max(0, Math.min(size - 1, Math.round(fraction * size)));
+    }
+}
@@ -0,0 +1,104 @@
+package pages.hierarchy;
+
+import core.waits.UiChangeSignal;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Caches the UI hierarchy of a session. The hierarchy is pulled once and reused by every read-only check until an
+ * action that can change the UI invalidates it. A pulled hierarchy that differs from the previous one is signalled
+ * as a UI change to the waits of the session, see {@link UiChangeSignal}.
+ */
+public class HierarchyCache {
+    private static final Map<WebDriver, HierarchyCache> CACHES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final WebDriver driver;
+    private volatile UiHierarchy hierarchy;
+    // the System.nanoTime() at which the cached hierarchy was pulled
+    private volatile long pulledAt;
+    // the source hash of the last pulled hierarchy, survives invalidation
+    private volatile Integer lastSourceHash;
+
+    private HierarchyCache(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Returns the hierarchy cache of a session, pages of the same session share it.
+     *
+     * @param driver the driver of the session
+     * @return the hierarchy cache
+     */
+    public static HierarchyCache of(WebDriver driver) {
+        return CACHES.computeIfAbsent(driver, HierarchyCache::new);
+    }
+
+    /**
+     * Drops the cache of a session that is about to be quit. The cache holds on to its driver, so the weak map alone
+     * never lets go of it.
+     *
+     * @param driver the driver of the session
+     */
+    public static void release(WebDriver driver) {
+        CACHES.remove(driver);
+    }
+
+    /**
+     * Returns the cached hierarchy, pulling the page source if the cache is empty.
+     */
+    public UiHierarchy get() {
+        UiHierarchy current = hierarchy;
+        if (current == null) {
+            long pullStart = System.nanoTime();
+            current = new UiHierarchy(driver.getPageSource());
+            pulledAt = pullStart;
+            hierarchy = current;
+
+            Integer previousSourceHash = lastSourceHash;
+            lastSourceHash = current.getSourceHash();
+            if (previousSourceHash != null && previousSourceHash != current.getSourceHash()) UiChangeSignal.of(driver).signal();
+        }
+        return current;
+    }
+
+    /**
+     * Returns the cached hierarchy without pulling the page source.
+     *
+     * @return the cached hierarchy, null if the cache is empty
+     */
+    public UiHierarchy peek() {
+        return hierarchy;
+    }
+
+    /**
+     * Returns the cached hierarchy without pulling the page source, but only if it was pulled after a point in time.
+     * A hierarchy pulled before that may no longer show what's on screen.
+     *
+     * @param nanoTime the {@link System#nanoTime()} the hierarchy must have been pulled after
+     * @return the cached hierarchy, null if the cache is empty or was pulled before that time
+     */
+    public UiHierarchy peekPulledSince(long nanoTime) {
+        UiHierarchy current = hierarchy;
+        return current != null && pulledAt - nanoTime >= 0 ? current : null;
+    }
+
+    /**
+     * Drops the cached hierarchy, the next read pulls the page source again.
+     */
+    public void invalidate() {
+        hierarchy = null;
+    }
+
+    /**
+     * Finds a node in the cached hierarchy.
+     *
+     * @param xpath the locator xpath
+     * @return the first matching node, null if no node matches
+     */
+    public UiNode find(String xpath) {
+        return get().find(xpath);
+    }
+}
@@ -0,0 +1,204 @@
+package pages.hierarchy;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory copy of the UiAutomator2 page source with indexes on resource-id, content-desc and text.
+ * Locator xpaths are evaluated on the JVM, see {@link UiXPath}, xpaths outside the supported subset fall back
+ * to the JDK xpath engine over the same page source.
+ */
+public class UiHierarchy {
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+    private final String pageSource;
+    private final UiNode document;
+    private final List<UiNode> nodesInOrder = new ArrayList<>();
+    private final Map<String, List<UiNode>> nodesByResourceId = new HashMap<>();
+    private final Map<String, List<UiNode>> nodesByContentDesc = new HashMap<>();
+    private final Map<String, List<UiNode>> nodesByText = new HashMap<>();
+
+    private Document domDocument;
+
+    public UiHierarchy(String pageSource) {
+        this.pageSource = pageSource;
+        this.document = new UiNode(null, 0, "#document", new HashMap<>());
+        nodesInOrder.add(document);
+        parse();
+    }
+
+    /**
+     * Finds the first node matching a locator xpath in document order.
+     *
+     * @param xpath the locator xpath
+     * @return the first matching node, null if no node matches
+     */
+    public UiNode find(String xpath) {
+        UiXPath compiled = UiXPath.compile(xpath);
+        if (compiled != null) return compiled.evaluateFirst(this);
+
+        return findWithJdkXPath(xpath);
+    }
+
+    public UiNode getDocument() {
+        return document;
+    }
+
+    public String getPageSource() {
+        return pageSource;
+    }
+
+    /**
+     * A hash of the page source, two dumps with the same hash show the same UI.
+     */
+    public int getSourceHash() {
+        return pageSource.hashCode();
+    }
+
+    /**
+     * Returns the first scrollable node in document order.
+     *
+     * @return the outermost scrollable node, null if nothing on the screen scrolls
+     */
+    public UiNode findScrollable() {
+        for (UiNode node : nodesInOrder) {
+            if ("true".equals(node.attribute("scrollable"))) return node;
+        }
+        return null;
+    }
+
+    public int size() {
+        return nodesInOrder.size() - 1;
+    }
+
+    /**
+     * Returns the indexed nodes for an attribute value. Empty values aren't indexed, and a value missing from the
+     * index is left to the tree walk as well, so the index never answers with fewer nodes than the tree holds.
+     *
+     * @param attribute the attribute name
+     * @param value     the attribute value
+     * @return the nodes having the attribute value in document order, null if the value isn't indexed
+     */
+    List<UiNode> indexed(String attribute, String value) {
+        Map<String, List<UiNode>> index = switch (attribute) {
+            case "resource-id" -> nodesByResourceId;
+            case "content-desc" -> nodesByContentDesc;
+            case "text" -> nodesByText;
+            default -> null;
+        };
+        return index == null || value.isEmpty() ? null : index.get(value);
+    }
+
+    private void parse() {
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(new StringReader(pageSource));
+            Deque<UiNode> ancestors = new ArrayDeque<>();
+            ancestors.push(document);
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    Map<String, String> attributes = new HashMap<>();
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+                    }
+
+                    UiNode node = new UiNode(ancestors.peek(), nodesInOrder.size(), reader.getLocalName(), attributes);
+                    ancestors.peek().addChild(node);
+                    ancestors.push(node);
+                    nodesInOrder.add(node);
+                    index(node);
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    ancestors.pop();
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Failed to parse the page source.", e);
+        }
+    }
+
+    private void index(UiNode node) {
+        if (node.getResourceId() != null) nodesByResourceId.computeIfAbsent(node.getResourceId(), key -> new ArrayList<>()).add(node);
+        if (node.getContentDesc() != null) nodesByContentDesc.computeIfAbsent(node.getContentDesc(), key -> new ArrayList<>()).add(node);
+        if (!node.getText().isEmpty()) nodesByText.computeIfAbsent(node.getText(), key -> new ArrayList<>()).add(node);
+    }
+
+    private UiNode findWithJdkXPath(String xpath) {
+        try {
+            Node match = (Node) XPathFactory.newInstance().newXPath().evaluate(xpath, domDocument(), XPathConstants.NODE);
+            if (match == null || match.getNodeType() != Node.ELEMENT_NODE) return null;
+
+            // elements are numbered in document order by both parsers, which maps the DOM match back to its node
+            int order = 0;
+            for (Node node = domDocument().getDocumentElement(); node != null; node = nextElement(node)) {
+                order++;
+                if (node == match) return nodesInOrder.get(order);
+            }
+            return null;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid locator xpath: " + xpath, e);
+        }
+    }
+
+    private Document domDocument() {
+        if (domDocument == null) {
+            try {
+                DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                domDocument = factory.newDocumentBuilder().parse(new InputSource(new StringReader(pageSource)));
+            } catch (ParserConfigurationException | SAXException | IOException e) {
+                throw new IllegalStateException("Failed to parse the page source.", e);
+            }
+        }
+        return domDocument;
+    }
+
+    private static Node nextElement(Node node) {
+        Node next = firstElement(node.getFirstChild());
+        if (next != null) return next;
+
+        for (Node current = node; current != null && current.getNodeType() == Node.ELEMENT_NODE; current = current.getParentNode()) {
+            next = firstElement(current.getNextSibling());
+            if (next != null) return next;
+        }
+        return null;
+    }
+
+    private static Node firstElement(Node node) {
+        while (node != null && node.getNodeType() != Node.ELEMENT_NODE) {
+            node = node.getNextSibling();
+        }
+        return node;
+    }
+
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
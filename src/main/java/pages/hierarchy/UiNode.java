@@ -0,0 +1,121 @@
+package pages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node of the cached UI hierarchy. The attributes the locators of this framework use are kept as fields,
+ * everything else the page source reports is kept in a map.
+ */
+public class UiNode {
+    private final UiNode parent;
+    private final int order;
+    private final String className;
+    private final String resourceId;
+    private final String contentDesc;
+    // null if the node has no text attribute, like the hierarchy root
+    private final String text;
+    private final boolean displayed;
+    private final boolean enabled;
+    private final int[] bounds;
+    private final Map<String, String> otherAttributes;
+    private final List<UiNode> children = new ArrayList<>();
+
+    UiNode(UiNode parent, int order, String className, Map<String, String> attributes) {
+        this.parent = parent;
+        this.order = order;
+        this.className = className;
+        this.resourceId = attributes.remove("resource-id");
+        this.contentDesc = attributes.remove("content-desc");
+        this.text = attributes.remove("text");
+        this.displayed = Boolean.parseBoolean(attributes.remove("displayed"));
+        this.enabled = Boolean.parseBoolean(attributes.remove("enabled"));
+        this.bounds = parseBounds(attributes.remove("bounds"));
+        this.otherAttributes = attributes;
+    }
+
+    void addChild(UiNode child) {
+        children.add(child);
+    }
+
+    /**
+     * Returns the value of an attribute the way the page source reports it.
+     *
+     * @param name the attribute name
+     * @return the attribute value, null if the node doesn't have the attribute
+     */
+    public String attribute(String name) {
+        return switch (name) {
+            case "class" -> className;
+            case "resource-id" -> resourceId;
+            case "content-desc" -> contentDesc;
+            case "text" -> text;
+            case "displayed" -> String.valueOf(displayed);
+            case "enabled" -> String.valueOf(enabled);
+            case "bounds" -> bounds == null ? null : "[" + bounds[0] + "," + bounds[1] + "][" + bounds[2] + "," + bounds[3] + "]";
+            default -> otherAttributes.get(name);
+        };
+    }
+
+    public UiNode getParent() {
+        return parent;
+    }
+
+    public List<UiNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * The position of the node in document order.
+     */
+    public int getOrder() {
+        return order;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public String getResourceId() {
+        return resourceId;
+    }
+
+    public String getContentDesc() {
+        return contentDesc;
+    }
+
+    public String getText() {
+        return text == null ? "" : text;
+    }
+
+    public boolean isDisplayed() {
+        return displayed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The on-screen bounds of the node as left, top, right, bottom, null if the page source doesn't report them.
+     */
+    public int[] getBounds() {
+        return bounds == null ? null : bounds.clone();
+    }
+
+    private static int[] parseBounds(String bounds) {
+        if (bounds == null) return null;
+
+        // bounds are reported as [left,top][right,bottom]
+        String[] values = bounds.replace("][", ",").replace("[", "").replace("]", "").split(",");
+        if (values.length != 4) return null;
+
+        int[] parsed = new int[4];
+        for (int i = 0; i < 4; i++) {
+            parsed[i] = Integer.parseInt(values[i].trim());
+        }
+        return parsed;
+    }
+}
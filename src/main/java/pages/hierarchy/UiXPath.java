@@ -0,0 +1,416 @@
+package pages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A compiled locator xpath that is evaluated directly on a {@link UiHierarchy}. Only the subset the page objects
+ * use is supported: child and descendant steps with a class name or `*` node test, and predicates made of
+ * `@attribute='value'` and `contains(@attribute, 'value')` conditions joined with `and`.
+ * A leading descendant step with an equality predicate on an indexed attribute is answered from the index.
+ */
+final class UiXPath {
+    private static final Map<String, Optional<UiXPath>> COMPILED = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<String>> TRANSLATED = new ConcurrentHashMap<>();
+
+    // UiSelector methods per attribute, `~` marks the contains() form
+    private static final Map<String, String> UI_SELECTOR_METHODS = Map.ofEntries(
+            Map.entry("text", "text"),
+            Map.entry("text~", "textContains"),
+            Map.entry("content-desc", "description"),
+            Map.entry("content-desc~", "descriptionContains"),
+            Map.entry("resource-id", "resourceId"),
+            Map.entry("class", "className"),
+            Map.entry("package", "packageName"),
+            Map.entry("checkable", "checkable"),
+            Map.entry("checked", "checked"),
+            Map.entry("clickable", "clickable"),
+            Map.entry("enabled", "enabled"),
+            Map.entry("focusable", "focusable"),
+            Map.entry("focused", "focused"),
+            Map.entry("long-clickable", "longClickable"),
+            Map.entry("scrollable", "scrollable"),
+            Map.entry("selected", "selected"));
+    private static final Set<String> BOOLEAN_ATTRIBUTES = Set.of(
+            "checkable", "checked", "clickable", "enabled", "focusable", "focused", "long-clickable", "scrollable", "selected");
+
+    private final List<Step> steps;
+
+    private record Step(boolean descendant, String nodeTest, List<Condition> conditions) {
+    }
+
+    private record Condition(String attribute, String value, boolean contains) {
+    }
+
+    private UiXPath(List<Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Compiles a locator xpath, compiled xpaths are cached.
+     *
+     * @param xpath the locator xpath
+     * @return the compiled xpath, null if the xpath is outside the supported subset
+     */
+    static UiXPath compile(String xpath) {
+        return COMPILED.computeIfAbsent(xpath, key -> Optional.ofNullable(new Parser(key).parse())).orElse(null);
+    }
+
+    UiNode evaluateFirst(UiHierarchy hierarchy) {
+        List<UiNode> context = List.of(hierarchy.getDocument());
+
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            List<UiNode> matches = new ArrayList<>();
+
+            List<UiNode> indexed = i == 0 && step.descendant() ? indexedCandidates(hierarchy, step) : null;
+            if (indexed != null) {
+                for (UiNode node : indexed) {
+                    if (matches(node, step)) matches.add(node);
+                }
+            } else {
+                for (UiNode node : context) {
+                    collect(node, step, matches);
+                }
+                matches = inDocumentOrder(matches);
+            }
+
+            if (matches.isEmpty()) return null;
+            context = matches;
+        }
+        return context.get(0);
+    }
+
+    /**
+     * Translates the xpath into the equivalent UiSelector, descendant steps become nested child selectors.
+     *
+     * @return the UiSelector expression, null if the xpath has no UiSelector equivalent
+     */
+    String toUiSelector() {
+        String selector = null;
+        for (int i = steps.size() - 1; i >= 0; i--) {
+            Step step = steps.get(i);
+            if (!step.descendant()) return null;
+
+            StringBuilder builder = new StringBuilder("new UiSelector()");
+            if (!"*".equals(step.nodeTest())) builder.append(".className(").append(javaLiteral(step.nodeTest())).append(")");
+            for (Condition condition : step.conditions()) {
+                String method = UI_SELECTOR_METHODS.get(condition.contains() ? condition.attribute() + "~" : condition.attribute());
+                if (method == null) return null;
+
+                if (BOOLEAN_ATTRIBUTES.contains(condition.attribute())) {
+                    if (!condition.value().equals("true") && !condition.value().equals("false")) return null;
+                    builder.append(".").append(method).append("(").append(condition.value()).append(")");
+                } else {
+                    builder.append(".").append(method).append("(").append(javaLiteral(condition.value())).append(")");
+                }
+            }
+            if (selector != null) builder.append(".childSelector(").append(selector).append(")");
+            selector = builder.toString();
+        }
+        return selector;
+    }
+
+    /**
+     * Translates a UiSelector into the equivalent locator xpath, nested child selectors become descendant steps.
+     * Translations are cached.
+     *
+     * @param uiSelector the UiSelector expression
+     * @return the xpath, null if the UiSelector is outside the subset {@link #toUiSelector()} produces
+     */
+    static String fromUiSelector(String uiSelector) {
+        return TRANSLATED.computeIfAbsent(uiSelector, key -> Optional.ofNullable(new UiSelectorParser(key).parse())).orElse(null);
+    }
+
+    /**
+     * Returns the accessibility id the xpath is equivalent to, which is the case for `//*[@content-desc='...']`.
+     *
+     * @return the accessibility id, null if the xpath isn't equivalent to one
+     */
+    String toAccessibilityId() {
+        if (steps.size() != 1) return null;
+
+        Step step = steps.get(0);
+        if (!step.descendant() || !"*".equals(step.nodeTest()) || step.conditions().size() != 1) return null;
+
+        Condition condition = step.conditions().get(0);
+        return !condition.contains() && condition.attribute().equals("content-desc") ? condition.value() : null;
+    }
+
+    private static String javaLiteral(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static List<UiNode> indexedCandidates(UiHierarchy hierarchy, Step step) {
+        for (Condition condition : step.conditions()) {
+            if (!condition.contains()) {
+                List<UiNode> indexed = hierarchy.indexed(condition.attribute(), condition.value());
+                if (indexed != null) return indexed;
+            }
+        }
+        return null;
+    }
+
+    private static void collect(UiNode node, Step step, List<UiNode> matches) {
+        for (UiNode child : node.getChildren()) {
+            if (matches(child, step)) matches.add(child);
+            if (step.descendant()) collect(child, step, matches);
+        }
+    }
+
+    private static List<UiNode> inDocumentOrder(List<UiNode> nodes) {
+        // nested context nodes collect the same descendants more than once
+        nodes.sort(Comparator.comparingInt(UiNode::getOrder));
+        List<UiNode> unique = new ArrayList<>(nodes.size());
+        for (UiNode node : nodes) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1) != node) unique.add(node);
+        }
+        return unique;
+    }
+
+    private static boolean matches(UiNode node, Step step) {
+        if (!"*".equals(step.nodeTest()) && !step.nodeTest().equals(node.getClassName())) return false;
+
+        for (Condition condition : step.conditions()) {
+            String value = node.attribute(condition.attribute());
+            if (value == null) return false;
+            if (condition.contains() ? !value.contains(condition.value()) : !value.equals(condition.value())) return false;
+        }
+        return true;
+    }
+
+    private static final class Parser {
+        private final String xpath;
+        private int position;
+
+        private Parser(String xpath) {
+            this.xpath = xpath;
+        }
+
+        private UiXPath parse() {
+            List<Step> steps = new ArrayList<>();
+
+            skipWhitespace();
+            while (position < xpath.length()) {
+                if (!consume("/")) return null;
+                boolean descendant = consume("/");
+
+                skipWhitespace();
+                String nodeTest = consume("*") ? "*" : name();
+                if (nodeTest == null) return null;
+
+                List<Condition> conditions = new ArrayList<>();
+                skipWhitespace();
+                while (consume("[")) {
+                    do {
+                        Condition condition = condition();
+                        if (condition == null) return null;
+                        conditions.add(condition);
+                    } while (consumeKeyword("and"));
+
+                    skipWhitespace();
+                    if (!consume("]")) return null;
+                    skipWhitespace();
+                }
+
+                steps.add(new Step(descendant, nodeTest, List.copyOf(conditions)));
+                skipWhitespace();
+            }
+            return steps.isEmpty() ? null : new UiXPath(List.copyOf(steps));
+        }
+
+        private Condition condition() {
+            skipWhitespace();
+            boolean contains = consumeKeyword("contains");
+            if (contains) {
+                skipWhitespace();
+                if (!consume("(")) return null;
+                skipWhitespace();
+            }
+
+            if (!consume("@")) return null;
+            String attribute = name();
+            if (attribute == null) return null;
+
+            skipWhitespace();
+            if (!consume(contains ? "," : "=")) return null;
+            skipWhitespace();
+            String value = literal();
+            if (value == null) return null;
+
+            if (contains) {
+                skipWhitespace();
+                if (!consume(")")) return null;
+            }
+            return new Condition(attribute, value, contains);
+        }
+
+        private String name() {
+            int start = position;
+            while (position < xpath.length()) {
+                char character = xpath.charAt(position);
+                if (!Character.isLetterOrDigit(character) && character != '.' && character != '_' && character != '-' && character != '$') break;
+                position++;
+            }
+            return position > start ? xpath.substring(start, position) : null;
+        }
+
+        private String literal() {
+            if (position >= xpath.length()) return null;
+
+            char quote = xpath.charAt(position);
+            if (quote != '\'' && quote != '"') return null;
+
+            int end = xpath.indexOf(quote, position + 1);
+            if (end < 0) return null;
+
+            String value = xpath.substring(position + 1, end);
+            position = end + 1;
+            return value;
+        }
+
+        private boolean consumeKeyword(String keyword) {
+            skipWhitespace();
+            int end = position + keyword.length();
+            if (!xpath.startsWith(keyword, position)) return false;
+            // the keyword must not be the prefix of a longer name
+            if (end < xpath.length() && Character.isLetterOrDigit(xpath.charAt(end))) return false;
+
+            position = end;
+            return true;
+        }
+
+        private boolean consume(String token) {
+            if (!xpath.startsWith(token, position)) return false;
+            position += token.length();
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (position < xpath.length() && Character.isWhitespace(xpath.charAt(position))) {
+                position++;
+            }
+        }
+    }
+
+    private static final class UiSelectorParser {
+        // attributes per UiSelector method, `~` marks the contains() form
+        private static final Map<String, String> ATTRIBUTES = UI_SELECTOR_METHODS.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getValue, Map.Entry::getKey));
+
+        private final String uiSelector;
+        private int position;
+
+        private UiSelectorParser(String uiSelector) {
+            this.uiSelector = uiSelector;
+        }
+
+        private String parse() {
+            String xpath = selector();
+            skipWhitespace();
+            return position == uiSelector.length() ? xpath : null;
+        }
+
+        private String selector() {
+            skipWhitespace();
+            if (!consume("new")) return null;
+            skipWhitespace();
+            if (!consume("UiSelector")) return null;
+            skipWhitespace();
+            if (!consume("(")) return null;
+            skipWhitespace();
+            if (!consume(")")) return null;
+
+            String nodeTest = "*";
+            List<String> conditions = new ArrayList<>();
+            String child = "";
+            skipWhitespace();
+            while (consume(".")) {
+                skipWhitespace();
+                String method = name();
+                skipWhitespace();
+                if (method == null || !consume("(")) return null;
+
+                if (method.equals("childSelector")) {
+                    String childXPath = selector();
+                    if (childXPath == null || !child.isEmpty()) return null;
+                    child = childXPath;
+                } else {
+                    String attribute = ATTRIBUTES.get(method);
+                    if (attribute == null) return null;
+                    skipWhitespace();
+                    String value = BOOLEAN_ATTRIBUTES.contains(attribute) ? bool() : literal();
+                    if (value == null) return null;
+
+                    boolean contains = attribute.endsWith("~");
+                    if (contains) attribute = attribute.substring(0, attribute.length() - 1);
+                    if (attribute.equals("class")) {
+                        if (!"*".equals(nodeTest)) return null;
+                        nodeTest = value;
+                    } else {
+                        String quoted = xpathLiteral(value);
+                        if (quoted == null) return null;
+                        conditions.add(contains ? "contains(@" + attribute + ", " + quoted + ")" : "@" + attribute + "=" + quoted);
+                    }
+                }
+                skipWhitespace();
+                if (!consume(")")) return null;
+                skipWhitespace();
+            }
+            String step = "//" + nodeTest + (conditions.isEmpty() ? "" : "[" + String.join(" and ", conditions) + "]");
+            return step + child;
+        }
+
+        private static String xpathLiteral(String value) {
+            if (!value.contains("'")) return "'" + value + "'";
+            return value.contains("\"") ? null : "\"" + value + "\"";
+        }
+
+        private String name() {
+            int start = position;
+            while (position < uiSelector.length() && Character.isLetter(uiSelector.charAt(position))) {
+                position++;
+            }
+            return position > start ? uiSelector.substring(start, position) : null;
+        }
+
+        private String bool() {
+            if (consume("true")) return "true";
+            return consume("false") ? "false" : null;
+        }
+
+        private String literal() {
+            if (!consume("\"")) return null;
+
+            StringBuilder value = new StringBuilder();
+            while (position < uiSelector.length()) {
+                char character = uiSelector.charAt(position++);
+                if (character == '"') return value.toString();
+                if (character == '\\') {
+                    if (position >= uiSelector.length()) return null;
+                    character = uiSelector.charAt(position++);
+                }
+                value.append(character);
+            }
+            return null;
+        }
+
+        private boolean consume(String token) {
+            if (!uiSelector.startsWith(token, position)) return false;
+            position += token.length();
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (position < uiSelector.length() && Character.isWhitespace(uiSelector.charAt(position))) {
+                position++;
+            }
+        }
+    }
+}
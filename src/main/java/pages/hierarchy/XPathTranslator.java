@@ -0,0 +1,45 @@
+package pages.hierarchy;
+
+/**
+ * Translates locator xpaths into the native locator strategies of UiAutomator2, which the server answers without
+ * serializing the whole hierarchy to XML, and back, so native locators can still be read from the hierarchy cache.
+ * Only the xpath subset the hierarchy cache evaluates is translated.
+ */
+public final class XPathTranslator {
+
+    private XPathTranslator() {
+    }
+
+    /**
+     * Translates a locator xpath into the equivalent UiSelector.
+     *
+     * @param xpath the locator xpath
+     * @return the UiSelector expression, null if the xpath has no UiSelector equivalent
+     */
+    public static String toUiSelector(String xpath) {
+        UiXPath compiled = UiXPath.compile(xpath);
+        return compiled == null ? null : compiled.toUiSelector();
+    }
+
+    /**
+     * Translates a locator xpath into the equivalent accessibility id, which is the case for an xpath that matches
+     * any element by its content description alone, `//*[@content-desc='...']`.
+     *
+     * @param xpath the locator xpath
+     * @return the accessibility id, null if the xpath matches by more than the content description
+     */
+    public static String toAccessibilityId(String xpath) {
+        UiXPath compiled = UiXPath.compile(xpath);
+        return compiled == null ? null : compiled.toAccessibilityId();
+    }
+
+    /**
+     * Translates a UiSelector into the equivalent locator xpath.
+     *
+     * @param uiSelector the UiSelector expression
+     * @return the xpath, null if the UiSelector has no xpath equivalent the hierarchy cache evaluates
+     */
+    public static String fromUiSelector(String uiSelector) {
+        return UiXPath.fromUiSelector(uiSelector);
+    }
+}
@@ -0,0 +1,302 @@
+package pages.locators;
+
+import config.ConfigurationManager;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import pages.BasePage;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.XPathTranslator;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Ranks the `@AndroidFindBy` locators of the page objects by cost and finds faster native equivalents for the
+ * xpath locators. UiAutomator2 answers an xpath by serializing the whole hierarchy to XML, while accessibility ids
+ * and UiSelectors are matched on the live nodes.
+ * <p>
+ * Against a device every locator and its rewrite are timed and compared on the current screen, a rewrite that finds
+ * the same element faster is a candidate for the page object, see {@link LocatorCost#isVerifiedFaster()}. The
+ * analysis only reports, the page sources are left to a reviewed change. Without a device the locators are ranked
+ * by the estimated cost of their strategy and checked against a saved page source:
+ * <pre>
+ * java -cp ... pages.locators.LocatorAnalyzer [page source file]
+ * </pre>
+ */
+public class LocatorAnalyzer {
+    private static final String PAGES_PACKAGE = "pages";
+    private static final int SAMPLES = 5;
+    private static final Pattern QUOTED_LITERAL = Pattern.compile("'[^']*'|\"[^\"]*\"");
+
+    private static final Logger LOGGER = Logger.getLogger(LocatorAnalyzer.class.getName());
+    private static final AtomicBoolean ANALYZED = new AtomicBoolean();
+
+    private final List<PageLocator> locators;
+
+    /**
+     * A locator annotation of a page object field.
+     */
+    public record PageLocator(Class<?> page, Field field, AndroidFindBy locator) {
+
+        String strategy() {
+            if (!locator.uiAutomator().isEmpty()) return "uiAutomator";
+            if (!locator.accessibility().isEmpty()) return "accessibility";
+            if (!locator.id().isEmpty()) return "id";
+            if (!locator.className().isEmpty()) return "className";
+            if (!locator.xpath().isEmpty()) return "xpath";
+            return "other";
+        }
+
+        String value() {
+            return switch (strategy()) {
+                case "uiAutomator" -> locator.uiAutomator();
+                case "accessibility" -> locator.accessibility();
+                case "id" -> locator.id();
+                case "className" -> locator.className();
+                case "xpath" -> locator.xpath();
+                default -> locator.toString();
+            };
+        }
+    }
+
+    public LocatorAnalyzer(List<PageLocator> locators) {
+        this.locators = locators;
+    }
+
+    public static void main(String[] args) throws IOException {
+        LocatorAnalyzer analyzer = new LocatorAnalyzer(scan());
+        UiHierarchy hierarchy = args.length > 0 ? new UiHierarchy(Files.readString(Path.of(args[0]))) : null;
+        LOGGER.info("Locator costs:\n" + report(analyzer.analyze(hierarchy)));
+    }
+
+    /**
+     * Analyzes the locators against the screen of a session once per run, when `locators.analyze` is configured.
+     *
+     * @param driver the driver of the session
+     */
+    public static void analyzeOnceIfEnabled(AppiumDriver driver) {
+        if (!ConfigurationManager.getInstance().isLocatorAnalysisEnabled() || !ANALYZED.compareAndSet(false, true)) return;
+
+        LOGGER.info("Locator costs:\n" + report(new LocatorAnalyzer(scan()).analyze(driver)));
+    }
+
+    /**
+     * Finds the locator annotations of every page object in the `pages` package and its subpackages.
+     */
+    public static List<PageLocator> scan() {
+        List<PageLocator> locators = new ArrayList<>();
+        for (Class<?> page : pageClasses()) {
+            for (Field field : page.getDeclaredFields()) {
+                AndroidFindBy locator = field.getAnnotation(AndroidFindBy.class);
+                if (locator != null) locators.add(new PageLocator(page, field, locator));
+            }
+        }
+        return locators;
+    }
+
+    /**
+     * Times every locator and its rewrite on the current screen of a session, most expensive first.
+     *
+     * @param driver the driver of the session
+     */
+    public List<LocatorCost> analyze(AppiumDriver driver) {
+        List<LocatorCost> costs = new ArrayList<>();
+        for (PageLocator locator : locators) {
+            By by = by(locator.strategy(), locator.value());
+            if (by == null) continue;
+
+            Lookup lookup = lookup(driver, by);
+            String[] rewrite = rewriteOf(locator);
+            Lookup rewriteLookup = rewrite == null ? null : lookup(driver, by(rewrite[0], rewrite[1]));
+
+            costs.add(new LocatorCost(locator.page().getSimpleName(), locator.field().getName(), locator.strategy(),
+                    locator.value(), estimatedCost(locator.strategy(), locator.value()), lookup.millis(), lookup.elementId() != null,
+                    rewrite == null ? null : rewrite[0], rewrite == null ? null : rewrite[1],
+                    rewriteLookup == null ? Double.NaN : rewriteLookup.millis(),
+                    rewriteLookup == null ? null : isSameElement(lookup, rewriteLookup)));
+        }
+        costs.sort(Comparator.comparingDouble(LocatorCost::millis).reversed());
+        return costs;
+    }
+
+    /**
+     * Ranks the locators by the estimated cost of their strategy, most expensive first.
+     *
+     * @param hierarchy a saved screen the locators are matched against, may be null
+     */
+    public List<LocatorCost> analyze(UiHierarchy hierarchy) {
+        List<LocatorCost> costs = new ArrayList<>();
+        for (PageLocator locator : locators) {
+            boolean matches = false;
+            if (hierarchy != null) {
+                try {
+                    matches = hierarchy.find(BasePage.toXPath(locator.locator())) != null;
+                } catch (IllegalArgumentException e) {
+                    // no xpath equivalent to match on a saved screen
+                }
+            }
+
+            String[] rewrite = rewriteOf(locator);
+            costs.add(new LocatorCost(locator.page().getSimpleName(), locator.field().getName(), locator.strategy(),
+                    locator.value(), estimatedCost(locator.strategy(), locator.value()), Double.NaN, matches,
+                    rewrite == null ? null : rewrite[0], rewrite == null ? null : rewrite[1], Double.NaN, null));
+        }
+        costs.sort(Comparator.comparingDouble(LocatorCost::estimatedCost).reversed());
+        return costs;
+    }
+
+    /**
+     * Returns the relative cost of a locator: native lookups by accessibility id or resource id cost 1, UiSelectors
+     * cost 2 per selector, and xpaths cost 10 per step since every xpath lookup serializes the whole hierarchy.
+     */
+    public static double estimatedCost(String strategy, String value) {
+        return switch (strategy) {
+            case "accessibility", "id" -> 1;
+            case "className" -> 3;
+            case "uiAutomator" -> 2 * (1 + occurrences(value, "childSelector("));
+            case "xpath" -> {
+                String path = QUOTED_LITERAL.matcher(value).replaceAll("''");
+                yield 10 * Math.max(1, occurrences(path, "/") - occurrences(path, "//"));
+            }
+            default -> 10;
+        };
+    }
+
+    /**
+     * Formats the analysis as a table, in the order of the results.
+     */
+    public static String report(List<LocatorCost> costs) {
+        StringBuilder report = new StringBuilder(String.format("%-45s %-14s %6s %10s %7s  %s%n",
+                "locator", "strategy", "cost", "ms", "match", "rewrite"));
+        for (LocatorCost cost : costs) {
+            String rewrite = !cost.hasRewrite() ? "-" : cost.rewriteStrategy() + " = " + cost.rewriteValue()
+                    + (Double.isNaN(cost.rewriteMillis()) ? "" : String.format(" (%.1f ms, %s)", cost.rewriteMillis(),
+                    Boolean.TRUE.equals(cost.equivalent()) ? "same element" : "different element"));
+            report.append(String.format("%-45s %-14s %6.0f %10s %7s  %s%n",
+                    cost.page() + "." + cost.field(), cost.strategy(), cost.estimatedCost(),
+                    Double.isNaN(cost.millis()) ? "-" : String.format("%.1f", cost.millis()),
+                    cost.matches() ? "yes" : "no", rewrite));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the strategy and value of the native equivalent of an xpath locator, null if there is none.
+     */
+    private static String[] rewriteOf(PageLocator locator) {
+        if (!locator.strategy().equals("xpath")) return null;
+
+        String accessibilityId = XPathTranslator.toAccessibilityId(locator.value());
+        if (accessibilityId != null) return new String[]{"accessibility", accessibilityId};
+
+        String uiSelector = XPathTranslator.toUiSelector(locator.value());
+        return uiSelector == null ? null : new String[]{"uiAutomator", uiSelector};
+    }
+
+    private record Lookup(double millis, String elementId) {
+    }
+
+    /**
+     * Returns whether two lookups found the same element, two lookups that find nothing prove nothing.
+     */
+    private static boolean isSameElement(Lookup lookup, Lookup otherLookup) {
+        return lookup.elementId() != null && lookup.elementId().equals(otherLookup.elementId());
+    }
+
+    private static Lookup lookup(AppiumDriver driver, By by) {
+        double[] samples = new double[SAMPLES];
+        String elementId = null;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            List<WebElement> elements;
+            try {
+                elements = driver.findElements(by);
+            } catch (WebDriverException e) {
+                elements = Collections.emptyList();
+            }
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+            if (!elements.isEmpty() && elements.get(0) instanceof RemoteWebElement element) elementId = element.getId();
+        }
+        Arrays.sort(samples);
+        return new Lookup(samples[SAMPLES / 2], elementId);
+    }
+
+    private static By by(String strategy, String value) {
+        return switch (strategy) {
+            case "uiAutomator" -> AppiumBy.androidUIAutomator(value);
+            case "accessibility" -> AppiumBy.accessibilityId(value);
+            case "id" -> AppiumBy.id(value);
+            case "className" -> AppiumBy.className(value);
+            case "xpath" -> AppiumBy.xpath(value);
+            default -> null;
+        };
+    }
+
+    private static List<Class<?>> pageClasses() {
+        List<Class<?>> classes = new ArrayList<>();
+        try {
+            Enumeration<URL> roots = LocatorAnalyzer.class.getClassLoader().getResources(PAGES_PACKAGE);
+            while (roots.hasMoreElements()) {
+                URL root = roots.nextElement();
+                if (root.getProtocol().equals("jar")) {
+                    try (FileSystem jar = FileSystems.newFileSystem(root.toURI(), Map.of())) {
+                        collectClasses(jar.getPath(PAGES_PACKAGE), jar.getPath("/"), classes);
+                    }
+                } else {
+                    Path directory = Path.of(root.toURI());
+                    collectClasses(directory, directory.getParent(), classes);
+                }
+            }
+        } catch (IOException | URISyntaxException e) {
+            throw new IllegalStateException("Failed to scan the page objects.", e);
+        }
+        return classes;
+    }
+
+    private static void collectClasses(Path directory, Path classpathRoot, List<Class<?>> classes) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(".class")).toList()) {
+                String relative = classpathRoot.relativize(file.toAbsolutePath()).toString();
+                String className = relative.substring(0, relative.length() - ".class".length())
+                        .replace(file.getFileSystem().getSeparator(), ".");
+                if (className.startsWith(".")) className = className.substring(1);
+
+                try {
+                    classes.add(Class.forName(className, false, LocatorAnalyzer.class.getClassLoader()));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    // not loadable on its own, e.g. a synthetic class
+                }
+            }
+        }
+    }
+
+    private static int occurrences(String value, String token) {
+        int count = 0;
+        for (int index = value.indexOf(token); index >= 0; index = value.indexOf(token, index + token.length())) {
+            count++;
+        }
+        return count;
+    }
+}
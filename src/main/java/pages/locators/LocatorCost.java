@@ -0,0 +1,33 @@
+package pages.locators;
+
+/**
+ * The measured or estimated cost of a page object locator, together with its faster native rewrite.
+ *
+ * @param page            the page class
+ * @param field           the field name
+ * @param strategy        the locator strategy of the annotation
+ * @param value           the locator value of the annotation
+ * @param estimatedCost   the relative cost of the strategy, see {@link LocatorAnalyzer#estimatedCost}
+ * @param millis          the median lookup time, NaN if it wasn't measured
+ * @param matches         whether the locator matches an element of the analyzed screen
+ * @param rewriteStrategy the strategy of the rewrite, null if there is no faster equivalent
+ * @param rewriteValue    the locator value of the rewrite, null if there is no faster equivalent
+ * @param rewriteMillis   the median lookup time of the rewrite, NaN if it wasn't measured
+ * @param equivalent      whether the rewrite found the same element on the device, null if it wasn't verified
+ */
+public record LocatorCost(String page, String field, String strategy, String value, double estimatedCost,
+                          double millis, boolean matches, String rewriteStrategy, String rewriteValue,
+                          double rewriteMillis, Boolean equivalent) {
+
+    public boolean hasRewrite() {
+        return rewriteStrategy != null;
+    }
+
+    /**
+     * Returns whether the rewrite was verified on a device to find the same element faster. Only a locator that
+     * matched an element on the analyzed screen can be verified.
+     */
+    public boolean isVerifiedFaster() {
+        return matches && Boolean.TRUE.equals(equivalent) && rewriteMillis < millis;
+    }
+}
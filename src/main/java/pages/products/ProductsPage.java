@@ -11,7 +11,7 @@ public class ProductsPage extends BasePage {
         super(driver);
     }
 
-    @AndroidFindBy(xpath = "//android.widget.TextView[@text='PRODUCTS']")
+    @AndroidFindBy(uiAutomator = "new UiSelector().className(\"android.widget.TextView\").text(\"PRODUCTS\")")
     WebElement productsPageTitle;
 
     public WebElement getProductsPageTitle() {
@@ -0,0 +1,126 @@
+package pages.text;
+
+import config.ConfigurationManager;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.InvalidArgumentException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.interactions.Actions;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.remote.SessionId;
+import pages.hierarchy.UiNode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enters text with the fastest method the session supports. Every method writes the whole text in a single
+ * command, and a method the server rejects once is not tried again for the session.
+ * <ul>
+ *     <li>into an element: replace the value through `mobile: replaceElementValue`, verified with one read,
+ *     falling back to clear and sendKeys</li>
+ *     <li>into the focused field: `mobile: type`, then `adb shell input text` when allowed with
+ *     `-Dtext.adbInput=true`, falling back to a W3C key action</li>
+ * </ul>
+ */
+public class TextEntry {
+    // the character Android uses to mask password fields
+    private static final char PASSWORD_MASK = '•';
+
+    private static final Map<SessionId, Set<Strategy>> UNSUPPORTED_STRATEGIES = new ConcurrentHashMap<>();
+
+    private final AppiumDriver driver;
+    private final boolean adbInputAllowed = ConfigurationManager.getInstance().isAdbInputAllowed();
+
+    public enum Strategy {
+        REPLACE_VALUE,
+        MOBILE_TYPE,
+        ADB_INPUT
+    }
+
+    public TextEntry(AppiumDriver driver) {
+        this.driver = driver;
+    }
+
+    /**
+     * Replaces the text of an element.
+     *
+     * @param element    the found element
+     * @param text       the text to enter
+     * @param cachedNode the element in a UI hierarchy pulled during this entry, null if there is none. Only such a
+     *                   node showing an empty field saves the clear, the field is cleared in every other case
+     */
+    public void replaceText(WebElement element, String text, UiNode cachedNode) {
+        if (isSupported(Strategy.REPLACE_VALUE) && element instanceof RemoteWebElement remoteElement) {
+            try {
+                driver.executeScript("mobile: replaceElementValue", Map.of("elementId", remoteElement.getId(), "text", text));
+                if (hasText(element, text)) return;
+            } catch (UnsupportedCommandException | InvalidArgumentException e) {
+                markUnsupported(Strategy.REPLACE_VALUE);
+            }
+        }
+
+        if (cachedNode == null || !cachedNode.getText().isEmpty()) element.clear();
+        element.sendKeys(text);
+    }
+
+    /**
+     * Types text into the focused field.
+     *
+     * @param text the text to type
+     */
+    public void typeIntoFocusedField(String text) {
+        if (isSupported(Strategy.MOBILE_TYPE)) {
+            try {
+                driver.executeScript("mobile: type", Map.of("text", text));
+                return;
+            } catch (UnsupportedCommandException | InvalidArgumentException e) {
+                markUnsupported(Strategy.MOBILE_TYPE);
+            }
+        }
+
+        if (adbInputAllowed && isSupported(Strategy.ADB_INPUT)) {
+            try {
+                driver.executeScript("mobile: shell", Map.of("command", "input", "args", List.of("text", escapeForInput(text))));
+                return;
+            } catch (UnsupportedCommandException | InvalidArgumentException e) {
+                markUnsupported(Strategy.ADB_INPUT);
+            }
+        }
+
+        new Actions(driver).sendKeys(text).perform();
+    }
+
+    private boolean isSupported(Strategy strategy) {
+        return !UNSUPPORTED_STRATEGIES.getOrDefault(driver.getSessionId(), Set.of()).contains(strategy);
+    }
+
+    private void markUnsupported(Strategy strategy) {
+        UNSUPPORTED_STRATEGIES.computeIfAbsent(driver.getSessionId(), key -> ConcurrentHashMap.newKeySet()).add(strategy);
+    }
+
+    /**
+     * Checks the entered text with a single read, password fields only report the masked text.
+     */
+    private static boolean hasText(WebElement element, String text) {
+        String actual = element.getText();
+        if (text.equals(actual)) return true;
+
+        return actual.length() == text.length() && actual.chars().allMatch(character -> character == PASSWORD_MASK);
+    }
+
+    private static String escapeForInput(String text) {
+        StringBuilder escaped = new StringBuilder();
+        for (char character : text.toCharArray()) {
+            if (character == ' ') {
+                escaped.append("%s");
+            } else {
+                if ("()<>|;&*\\~\"'$`".indexOf(character) >= 0) escaped.append('\\');
+                escaped.append(character);
+            }
+        }
+        return escaped.toString();
+    }
+}
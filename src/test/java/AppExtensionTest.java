@@ -0,0 +1,91 @@
+import core.App;
+import core.AppExtension;
+import core.TestScope;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that the {@link AppExtension} binds the app of a test around its invocations, and that
+ * {@link TestScope#callConcurrently} binds every app on its own virtual thread, no device needed.
+ */
+@Tag("Framework")
+public class AppExtensionTest {
+
+    @Test
+    public void test_runs_on_the_worker_that_set_it_up_with_its_app_bound() throws Throwable {
+        App app = new App();
+        Thread worker = Thread.currentThread();
+
+        new AppExtension().interceptTestMethod(() -> {
+            Assertions.assertSame(worker, Thread.currentThread());
+            Assertions.assertSame(app, TestScope.app());
+            return null;
+        }, null, contextOf(app));
+        Assertions.assertNull(TestScope.current());
+    }
+
+    @Test
+    public void failure_of_a_test_is_rethrown_and_its_app_unbound() {
+        AssertionError failure = new AssertionError("failed");
+
+        AssertionError thrown = Assertions.assertThrows(AssertionError.class,
+                () -> new AppExtension().interceptTestMethod(() -> {
+                    throw failure;
+                }, null, contextOf(new App())));
+        Assertions.assertSame(failure, thrown);
+        Assertions.assertNull(TestScope.current());
+    }
+
+    @Test
+    public void every_app_is_driven_on_its_own_virtual_thread_with_the_app_bound() throws Throwable {
+        List<App> apps = List.of(new App(), new App(), new App());
+        CountDownLatch allStarted = new CountDownLatch(apps.size());
+
+        List<App> boundApps = TestScope.callConcurrently(apps, () -> {
+            Assertions.assertTrue(Thread.currentThread().isVirtual());
+            // every task waits for the others, so they can only finish if they run at once
+            allStarted.countDown();
+            Assertions.assertTrue(allStarted.await(10, TimeUnit.SECONDS));
+            return TestScope.app();
+        });
+        Assertions.assertEquals(apps, boundApps);
+        Assertions.assertNull(TestScope.current());
+    }
+
+    @Test
+    public void first_failure_of_the_apps_is_thrown_with_the_others_suppressed() {
+        List<App> apps = List.of(new App(), new App(), new App());
+
+        AssertionError thrown = Assertions.assertThrows(AssertionError.class, () -> TestScope.callConcurrently(apps, () -> {
+            int index = apps.indexOf(TestScope.app());
+            if (index > 0) throw new AssertionError("app " + index);
+            return index;
+        }));
+        Assertions.assertEquals("app 1", thrown.getMessage());
+        Assertions.assertEquals(1, thrown.getSuppressed().length);
+        Assertions.assertEquals("app 2", thrown.getSuppressed()[0].getMessage());
+    }
+
+    /**
+     * Returns an extension context whose store holds the app of the test, the way {@link AppExtension#beforeEach}
+     * leaves it.
+     */
+    private static ExtensionContext contextOf(App app) {
+        ExtensionContext.Store store = proxy(ExtensionContext.Store.class, "get", app);
+        return proxy(ExtensionContext.class, "getStore", store);
+    }
+
+    private static <T> T proxy(Class<T> type, String methodName, Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals(methodName)) return result;
+            throw new UnsupportedOperationException(method.getName());
+        }));
+    }
+}
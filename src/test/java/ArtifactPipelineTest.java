@@ -0,0 +1,95 @@
+import core.artifacts.ArtifactPipeline;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Checks how the {@link ArtifactPipeline} shrinks and deduplicates failure artifacts, no device needed.
+ */
+@Tag("Framework")
+public class ArtifactPipelineTest {
+    private static final String PAGE_SOURCE = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <hierarchy rotation="0">
+              <android.widget.TextView text="PRODUCTS  LIST"/>
+            </hierarchy>
+            """;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void minify_removes_the_whitespace_between_tags_only() {
+        String minified = new String(ArtifactPipeline.minify(PAGE_SOURCE.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+
+        Assertions.assertEquals("<?xml version=\"1.0\" encoding=\"UTF-8\"?><hierarchy rotation=\"0\">"
+                + "<android.widget.TextView text=\"PRODUCTS  LIST\"/></hierarchy>", minified);
+    }
+
+    @Test
+    public void recompressed_screenshot_shows_the_same_image() throws IOException {
+        byte[] png = screenshot();
+        byte[] recompressed = ArtifactPipeline.recompress(png);
+
+        Assertions.assertTrue(recompressed.length <= png.length);
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(png));
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(recompressed));
+        Assertions.assertEquals(original.getWidth(), image.getWidth());
+        Assertions.assertEquals(original.getRGB(10, 10), image.getRGB(10, 10));
+        Assertions.assertEquals(original.getRGB(70, 90), image.getRGB(70, 90));
+    }
+
+    @Test
+    public void screenshot_that_is_not_a_png_is_kept_as_is() throws IOException {
+        byte[] content = "not a png".getBytes(StandardCharsets.UTF_8);
+        Assertions.assertSame(content, ArtifactPipeline.recompress(content));
+    }
+
+    @Test
+    public void identical_artifacts_are_written_once_and_indexed_per_failure() throws IOException {
+        ArtifactPipeline pipeline = new ArtifactPipeline(tempDir, 2, 10);
+        byte[] screenshot = screenshot();
+
+        pipeline.submit("LoginTest#first", "element not found", screenshot, PAGE_SOURCE);
+        pipeline.submit("LoginTest#second", "element\nnot found", screenshot, PAGE_SOURCE);
+        pipeline.drain();
+
+        List<String> index = Files.readAllLines(tempDir.resolve("index.tsv"));
+        Assertions.assertEquals(2, index.size());
+        Assertions.assertEquals(index.get(0).split("\t")[2], index.get(1).split("\t")[2]);
+        Assertions.assertEquals(index.get(0).split("\t")[3], index.get(1).split("\t")[3]);
+        Assertions.assertTrue(index.stream().allMatch(line -> line.endsWith("\telement not found")));
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(Set.of(index.get(0).split("\t")[2], index.get(0).split("\t")[3], "index.tsv"),
+                    files.map(file -> file.getFileName().toString()).collect(Collectors.toSet()));
+        }
+        Assertions.assertEquals(0, pipeline.getDroppedCount());
+    }
+
+    private static byte[] screenshot() throws IOException {
+        BufferedImage image = new BufferedImage(120, 160, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, y < 80 ? 0x1E88E5 : 0xFAFAFA);
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+import config.ConfigurationManager;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Checks the precedence of the layers the {@link ConfigurationManager} merges, no device needed.
+ */
+@Tag("Framework")
+public class ConfigurationManagerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void defaults_apply_when_no_layer_sets_a_key() {
+        ConfigurationManager configuration = ConfigurationManager.load(Map.of(), new Properties());
+
+        Assertions.assertEquals(Duration.ofSeconds(10), configuration.getWaitTimeout());
+        Assertions.assertEquals(3, configuration.getStaleElementAttempts());
+    }
+
+    @Test
+    public void every_layer_overrides_the_ones_before_it() throws IOException {
+        Path configFile = Files.writeString(tempDir.resolve("local.properties"),
+                "wait.timeoutSeconds=30\nwait.pollingMillis=300\nscroll.maxSwipes=7\n");
+
+        Properties systemProperties = properties("profile", "ci", "config.file", configFile.toString(), "wait.timeoutSeconds", "50");
+        ConfigurationManager configuration = ConfigurationManager.load(
+                Map.of("WAIT_TIMEOUT_SECONDS", "40", "WAIT_POLLING_MILLIS", "400"), systemProperties);
+
+        // the profile over the defaults
+        Assertions.assertEquals(Duration.ofMillis(1000), configuration.getMaxPollingInterval());
+        Assertions.assertEquals(5, configuration.getStaleElementAttempts());
+        // the config file over the profile
+        Assertions.assertEquals(7, configuration.getMaxSwipes());
+        // environment variables over the config file
+        Assertions.assertEquals(Duration.ofMillis(400), configuration.getPollingInterval());
+        // system properties over environment variables
+        Assertions.assertEquals(Duration.ofSeconds(50), configuration.getWaitTimeout());
+    }
+
+    @Test
+    public void blank_override_keeps_the_value_below_it() {
+        ConfigurationManager configuration = ConfigurationManager.load(Map.of("WAIT_TIMEOUT_SECONDS", " "),
+                properties("wait.pollingMillis", ""));
+
+        Assertions.assertEquals(Duration.ofSeconds(10), configuration.getWaitTimeout());
+        Assertions.assertEquals(Duration.ofMillis(250), configuration.getPollingInterval());
+    }
+
+    @Test
+    public void unknown_key_in_a_config_file_is_rejected() throws IOException {
+        Path configFile = Files.writeString(tempDir.resolve("typo.properties"), "wait.timeoutSecond=30\n");
+
+        IllegalStateException thrown = Assertions.assertThrows(IllegalStateException.class,
+                () -> ConfigurationManager.load(Map.of(), properties("config.file", configFile.toString())));
+        Assertions.assertEquals("Unknown configuration key wait.timeoutSecond", thrown.getMessage());
+    }
+
+    @Test
+    public void unknown_profile_is_rejected() {
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> ConfigurationManager.load(Map.of(), properties("profile", "missing")));
+    }
+
+    @Test
+    public void unknown_keys_of_the_environment_and_system_properties_are_not_read() {
+        ConfigurationManager configuration = ConfigurationManager.load(Map.of("WAIT_TIMEOUT_SECOND", "30"),
+                properties("wait.timeoutSecond", "30"));
+
+        Assertions.assertEquals(Duration.ofSeconds(10), configuration.getWaitTimeout());
+        Assertions.assertFalse(configuration.isSet("wait.timeoutSecond"));
+    }
+
+    @Test
+    public void overrides_leave_the_snapshot_untouched() {
+        ConfigurationManager configuration = ConfigurationManager.load(Map.of(), new Properties());
+        ConfigurationManager overridden = configuration.withOverrides(Map.of("wait.timeoutSeconds", "1"));
+
+        Assertions.assertEquals(Duration.ofSeconds(1), overridden.getWaitTimeout());
+        Assertions.assertEquals(Duration.ofSeconds(10), configuration.getWaitTimeout());
+    }
+
+    private static Properties properties(String... keysAndValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return properties;
+    }
+}
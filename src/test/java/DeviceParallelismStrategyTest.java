@@ -0,0 +1,43 @@
+import core.DeviceParallelismStrategy;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the fork-join pool JUnit builds from the {@link DeviceParallelismStrategy}, no device needed.
+ */
+@Tag("Framework")
+public class DeviceParallelismStrategyTest {
+
+    @Test
+    public void workers_blocked_on_a_future_are_not_rejected() throws Exception {
+        ParallelExecutionConfiguration configuration = new DeviceParallelismStrategy().createConfiguration(null);
+        // the same pool the JUnit hierarchical executor creates
+        ForkJoinPool pool = new ForkJoinPool(configuration.getParallelism(), ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                null, false, configuration.getCorePoolSize(), configuration.getMaxPoolSize(), configuration.getMinimumRunnable(),
+                configuration.getSaturatePredicate(), configuration.getKeepAliveSeconds(), TimeUnit.SECONDS);
+        try {
+            // every worker blocks the way the Selenium HTTP client waits for a response
+            CompletableFuture<String> response = new CompletableFuture<>();
+            List<ForkJoinTask<String>> tests = new ArrayList<>();
+            for (int test = 0; test < configuration.getParallelism(); test++) {
+                tests.add(pool.submit(() -> response.get()));
+            }
+            CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> response.complete("session"));
+
+            for (ForkJoinTask<String> test : tests) {
+                Assertions.assertEquals("session", test.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+import core.devices.Device;
+import core.devices.DeviceRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+/**
+ * Checks how the {@link DeviceRegistry} reads device entries, no device needed.
+ */
+@Tag("Framework")
+public class DeviceRegistryTest {
+
+    @Test
+    public void tcp_serial_is_kept_whole() {
+        List<Device> devices = DeviceRegistry.parse(List.of("192.168.1.5:5555=http://10.0.0.2:4723,8200"));
+        Assertions.assertEquals(List.of(new Device("192.168.1.5:5555", "http://10.0.0.2:4723", 8200)), devices);
+    }
+
+    @Test
+    public void comments_and_blank_lines_are_skipped_and_devices_sorted_by_udid() {
+        List<Device> devices = DeviceRegistry.parse(List.of(
+                "# <udid>=<appium server url>,<uiautomator2 system port>",
+                "",
+                "emulator-5556 = http://127.0.0.1:4723 , 8201",
+                "emulator-5554=http://127.0.0.1:4723,8200"));
+
+        Assertions.assertEquals(List.of(new Device("emulator-5554", "http://127.0.0.1:4723", 8200),
+                new Device("emulator-5556", "http://127.0.0.1:4723", 8201)), devices);
+    }
+
+    @Test
+    public void malformed_entries_are_rejected() {
+        for (String entry : List.of("emulator-5554", "emulator-5554=http://127.0.0.1:4723", "=http://127.0.0.1:4723,8200",
+                "emulator-5554=http://127.0.0.1:4723,port")) {
+            Assertions.assertThrows(IllegalStateException.class, () -> DeviceRegistry.parse(List.of(entry)), entry);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import core.DriverPool;
+import core.metrics.InstrumentedCommandExecutor;
+import core.mock.MockAppiumServer;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.remote.DriverCommand;
+import pages.authentication.AuthenticationPage;
+import pages.hierarchy.HierarchyCache;
+
+import java.io.IOException;
+
+/**
+ * Exercises the lease, health check, reset and eviction of the {@link DriverPool} against the in-process
+ * {@link MockAppiumServer}, no device needed.
+ */
+@Tag("Framework")
+public class DriverPoolTest {
+    private static final String APP_PACKAGE = "com.swaglabsmobileapp";
+    private static final String LOGIN_BUTTON = "//*[@content-desc='test-LOGIN']";
+
+    private MockAppiumServer server;
+    private DriverPool pool;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = MockAppiumServer.start();
+        pool = new DriverPool(() -> new AppiumDriver(new InstrumentedCommandExecutor(server.getUrl()), new UiAutomator2Options()),
+                APP_PACKAGE, DriverPool.ResetStrategy.CLEAR_DATA);
+    }
+
+    @AfterEach
+    public void teardown() {
+        if (pool != null) pool.shutdown();
+        if (server != null) server.close();
+    }
+
+    @Test
+    public void idle_session_is_reused() throws Exception {
+        AppiumDriver driver = pool.lease();
+        pool.release(driver);
+
+        Assertions.assertSame(driver, pool.lease());
+        Assertions.assertEquals(1, server.getSessionCount());
+        Assertions.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void session_whose_app_state_query_fails_is_evicted() throws Exception {
+        AppiumDriver driver = pool.lease();
+        pool.release(driver);
+        server.failScript("mobile: queryAppState", 1);
+
+        Assertions.assertNotSame(driver, pool.lease());
+        Assertions.assertEquals(2, server.getSessionCount());
+        Assertions.assertEquals(1, server.getCommandCount(DriverCommand.QUIT));
+        Assertions.assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void session_that_fails_to_reset_is_evicted() throws Exception {
+        AppiumDriver driver = pool.lease();
+        server.failScript("mobile: clearApp", 1);
+        pool.release(driver);
+
+        Assertions.assertEquals(0, pool.size());
+        Assertions.assertEquals(0, pool.idleCount());
+        Assertions.assertEquals(1, server.getCommandCount(DriverCommand.QUIT));
+    }
+
+    @Test
+    public void shutdown_quits_every_session() throws Exception {
+        AppiumDriver leased = pool.lease();
+        pool.release(pool.lease());
+
+        pool.shutdown();
+        Assertions.assertEquals(0, pool.size());
+        Assertions.assertEquals(0, pool.idleCount());
+        Assertions.assertEquals(2, server.getCommandCount(DriverCommand.QUIT));
+        Assertions.assertNull(leased.getSessionId());
+    }
+
+    @Test
+    public void reused_session_does_not_read_the_screen_of_the_previous_test() throws Exception {
+        AppiumDriver driver = pool.lease();
+        new AuthenticationPage(driver).authenticate("standard_user", "secret_sauce");
+        Assertions.assertNull(HierarchyCache.of(driver).find(LOGIN_BUTTON));
+        pool.release(driver);
+
+        Assertions.assertSame(driver, pool.lease());
+        Assertions.assertNotNull(HierarchyCache.of(driver).find(LOGIN_BUTTON));
+    }
+}
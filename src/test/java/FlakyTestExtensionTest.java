@@ -0,0 +1,139 @@
+import core.FlakyTestExtension;
+import core.flaky.FlakyStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.openqa.selenium.TimeoutException;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a test that times out once through the JUnit launcher and checks that the {@link FlakyTestExtension} reruns
+ * it with its whole lifecycle, no device needed.
+ */
+@Tag("Framework")
+public class FlakyTestExtensionTest {
+    private static final AtomicInteger RUNS = new AtomicInteger();
+    private static final AtomicInteger SETUPS = new AtomicInteger();
+    private static final AtomicInteger TEARDOWNS = new AtomicInteger();
+    private static final AtomicInteger CALLBACKS = new AtomicInteger();
+    private static final Set<Object> INSTANCES = ConcurrentHashMap.newKeySet();
+    private static final String TEST_ID = TimesOutOnce.class.getName() + "#times_out_once";
+
+    // the statistics the fixture records into, never the shared ones of the working tree
+    private static volatile FlakyStats flakyStats;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void reset() {
+        flakyStats = new FlakyStats(tempDir.resolve("flaky-stats.properties"));
+        RUNS.set(0);
+        SETUPS.set(0);
+        TEARDOWNS.set(0);
+        CALLBACKS.set(0);
+        INSTANCES.clear();
+    }
+
+    @Test
+    public void rerun_goes_through_the_lifecycle_and_extensions_of_the_test() {
+        List<Map<String, String>> entries = Collections.synchronizedList(new ArrayList<>());
+        TestExecutionSummary summary = run(entries);
+
+        Assertions.assertEquals(1, summary.getTestsSucceededCount());
+        Assertions.assertEquals(0, summary.getTestsFailedCount());
+        Assertions.assertEquals(2, RUNS.get());
+        Assertions.assertEquals(2, SETUPS.get());
+        Assertions.assertEquals(2, TEARDOWNS.get());
+        Assertions.assertEquals(2, CALLBACKS.get());
+        Assertions.assertEquals(2, INSTANCES.size());
+        Assertions.assertTrue(entries.contains(Map.of(FlakyTestExtension.RETRY_ENTRY, "1", FlakyTestExtension.KIND_ENTRY, "TIMEOUT")));
+    }
+
+    @Test
+    public void flaky_pass_is_recorded_in_the_injected_statistics_only() {
+        FlakyStats.Entry shared = FlakyStats.getInstance().get(TEST_ID);
+        run(Collections.synchronizedList(new ArrayList<>()));
+
+        FlakyStats.Entry entry = flakyStats.get(TEST_ID);
+        Assertions.assertEquals(1, entry.runs());
+        Assertions.assertEquals(1, entry.reruns());
+        Assertions.assertEquals(1, entry.flakyPasses());
+        Assertions.assertEquals(shared, FlakyStats.getInstance().get(TEST_ID));
+
+        flakyStats.save();
+        Assertions.assertEquals(1, new FlakyStats(tempDir.resolve("flaky-stats.properties")).get(TEST_ID).flakyPasses());
+    }
+
+    private static TestExecutionSummary run(List<Map<String, String>> entries) {
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        TestExecutionListener entryListener = new TestExecutionListener() {
+            @Override
+            public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+                entries.add(entry.getKeyValuePairs());
+            }
+        };
+        LauncherFactory.create(LauncherConfig.builder().enableTestExecutionListenerAutoRegistration(false).build())
+                .execute(LauncherDiscoveryRequestBuilder.request()
+                        .selectors(DiscoverySelectors.selectClass(TimesOutOnce.class))
+                        .configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
+                        .build(), summary, entryListener);
+        return summary.getSummary();
+    }
+
+    /**
+     * Counts the callbacks of the test it extends.
+     */
+    static class CountingExtension implements AfterTestExecutionCallback {
+        @Override
+        public void afterTestExecution(ExtensionContext context) {
+            CALLBACKS.incrementAndGet();
+        }
+    }
+
+    @ExtendWith(CountingExtension.class)
+    static class TimesOutOnce {
+        @RegisterExtension
+        final FlakyTestExtension flakyTestExtension = new FlakyTestExtension(flakyStats);
+
+        @BeforeEach
+        void setup() {
+            SETUPS.incrementAndGet();
+        }
+
+        @AfterEach
+        void teardown() {
+            TEARDOWNS.incrementAndGet();
+        }
+
+        @Test
+        void times_out_once() {
+            INSTANCES.add(this);
+            if (RUNS.incrementAndGet() == 1) throw new TimeoutException("The screen didn't load in time");
+        }
+    }
+}
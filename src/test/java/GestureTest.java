@@ -0,0 +1,79 @@
+import enums.Directions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pages.gestures.GestureEngine;
+import pages.gestures.Pinch;
+import pages.gestures.Swipe;
+import pages.gestures.Viewport;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks how gestures are clamped to the {@link Viewport} and compiled and cached by the {@link GestureEngine},
+ * no device needed.
+ */
+@Tag("Framework")
+public class GestureTest {
+    private static final Viewport PORTRAIT = new Viewport(1080, 2280, 0);
+    private static final Viewport LANDSCAPE = new Viewport(2280, 1080, 1);
+
+    @Test
+    public void fractions_outside_the_viewport_are_clamped_to_its_edges() {
+        Assertions.assertEquals(0, PORTRAIT.x(-0.25));
+        Assertions.assertEquals(540, PORTRAIT.x(0.5));
+        Assertions.assertEquals(1079, PORTRAIT.x(1.0));
+        Assertions.assertEquals(1079, PORTRAIT.x(1.25));
+        Assertions.assertEquals(0, PORTRAIT.y(-1));
+        Assertions.assertEquals(2279, PORTRAIT.y(1.25));
+    }
+
+    @Test
+    public void swipe_is_compiled_into_one_centered_drag() {
+        Assertions.assertEquals(List.of(List.of(540, 1425), List.of(540, 855)), moves(Swipe.of(Directions.DOWN), PORTRAIT));
+        Assertions.assertEquals(List.of(List.of(540, 855), List.of(540, 1425)), moves(Swipe.of(Directions.UP), PORTRAIT));
+        Assertions.assertEquals(List.of(List.of(1425, 540), List.of(855, 540)), moves(Swipe.of(Directions.LEFT), LANDSCAPE));
+        Assertions.assertEquals(List.of(List.of(855, 540), List.of(1425, 540)), moves(Swipe.of(Directions.RIGHT), LANDSCAPE));
+    }
+
+    @Test
+    public void swipe_longer_than_the_screen_stays_on_it() {
+        Swipe swipe = new Swipe(Directions.UP, 1.5, Duration.ofMillis(100));
+        Assertions.assertEquals(List.of(List.of(540, 0), List.of(540, 2279)), moves(swipe, PORTRAIT));
+    }
+
+    @Test
+    public void payload_is_compiled_once_per_gesture_and_viewport() {
+        Map<String, Object> payload = GestureEngine.payload(Swipe.of(Directions.DOWN), PORTRAIT);
+
+        // equal records share the cache entry
+        Assertions.assertSame(payload, GestureEngine.payload(Swipe.of(Directions.DOWN), new Viewport(1080, 2280, 0)));
+        Assertions.assertNotSame(payload, GestureEngine.payload(Swipe.of(Directions.DOWN), new Viewport(1080, 2280, 2)));
+        Assertions.assertNotSame(payload, GestureEngine.payload(Swipe.fling(Directions.DOWN), PORTRAIT));
+        Assertions.assertNotEquals(payload, GestureEngine.payload(Swipe.of(Directions.DOWN), LANDSCAPE));
+    }
+
+    @Test
+    public void pinch_is_compiled_into_one_sequence_per_finger() {
+        Assertions.assertEquals(2, actions(GestureEngine.payload(Pinch.zoomIn(), PORTRAIT)).size());
+    }
+
+    /**
+     * Returns the points the fingers of a compiled gesture move to, in order.
+     */
+    private static List<List<Integer>> moves(Swipe swipe, Viewport viewport) {
+        return actions(GestureEngine.payload(swipe, viewport)).stream()
+                .flatMap(sequence -> ((List<?>) sequence.get("actions")).stream())
+                .map(action -> (Map<?, ?>) action)
+                .filter(action -> "pointerMove".equals(action.get("type")))
+                .map(action -> List.of((Integer) action.get("x"), (Integer) action.get("y")))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> actions(Map<String, Object> payload) {
+        return (List<Map<String, Object>>) payload.get("actions");
+    }
+}
@@ -0,0 +1,40 @@
+import core.history.HistoricalOrder;
+import core.history.TestHistory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Checks the orders of {@link HistoricalOrder} on made-up test histories.
+ */
+@Tag("Framework")
+public class HistoricalOrderTest {
+    private static final TestHistory.Entry SHORT = new TestHistory.Entry(1_000, 10, 0, false);
+    private static final TestHistory.Entry LONG = new TestHistory.Entry(60_000, 10, 0, false);
+    private static final TestHistory.Entry FLAKY = new TestHistory.Entry(30_000, 10, 5, false);
+    private static final TestHistory.Entry LAST_FAILED = new TestHistory.Entry(45_000, 10, 1, true);
+
+    @Test
+    public void longest_first_starts_tests_without_history_before_the_longest() {
+        Assertions.assertEquals(Arrays.asList(null, LONG, FLAKY, SHORT),
+                sorted(HistoricalOrder.LONGEST_FIRST, SHORT, LONG, null, FLAKY));
+    }
+
+    @Test
+    public void fail_fast_starts_the_last_failures_then_the_flakiest_then_the_shortest() {
+        TestHistory.Entry shortFlaky = new TestHistory.Entry(2_000, 10, 5, false);
+
+        Assertions.assertEquals(Arrays.asList(null, LAST_FAILED, shortFlaky, FLAKY, SHORT, LONG),
+                sorted(HistoricalOrder.FAIL_FAST, LONG, SHORT, FLAKY, LAST_FAILED, null, shortFlaky));
+    }
+
+    private static List<TestHistory.Entry> sorted(HistoricalOrder order, TestHistory.Entry... entries) {
+        List<TestHistory.Entry> sorted = new ArrayList<>(Arrays.asList(entries));
+        sorted.sort(order.comparator());
+        return sorted;
+    }
+}
@@ -0,0 +1,82 @@
+import core.metrics.LatencyHistogram;
+import core.metrics.Metrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks the buckets and quantiles of the {@link LatencyHistogram} and the Prometheus text rendered by
+ * {@link Metrics}, no device needed.
+ */
+@Tag("Framework")
+public class MetricsTest {
+
+    @Test
+    public void latencies_below_16_micros_have_a_bucket_each() {
+        for (long micros = 0; micros < 16; micros++) {
+            Assertions.assertEquals(micros, LatencyHistogram.bucketIndex(micros));
+            Assertions.assertEquals(micros, LatencyHistogram.bucketUpperBound((int) micros));
+        }
+    }
+
+    @Test
+    public void every_power_of_two_range_is_split_into_16_buckets() {
+        // 16 to 31 still have a bucket each, from 32 on every bucket is twice as wide as in the range below
+        Assertions.assertEquals(31, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(31)));
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(32), LatencyHistogram.bucketIndex(33));
+        Assertions.assertEquals(33, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(32)));
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(33) + 1, LatencyHistogram.bucketIndex(34));
+
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(1024), LatencyHistogram.bucketIndex(1087));
+        Assertions.assertEquals(1087, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(1024)));
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(1087) + 1, LatencyHistogram.bucketIndex(1088));
+    }
+
+    @Test
+    public void bucket_upper_bound_is_within_7_percent_of_every_latency_in_it() {
+        for (long micros = 16; micros < 1_000_000; micros = micros * 3 / 2 + 1) {
+            long upperBound = LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(micros));
+            Assertions.assertTrue(upperBound >= micros && upperBound <= micros * 1.07, micros + " -> " + upperBound);
+        }
+    }
+
+    @Test
+    public void latencies_above_the_range_are_clamped_into_the_last_bucket() {
+        Assertions.assertEquals(LatencyHistogram.bucketIndex(1L << 41), LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void quantiles_are_read_from_the_bucket_of_their_rank() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 100; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        Assertions.assertEquals(100, histogram.getCount());
+        Assertions.assertEquals(5_050_000, histogram.getSumMicros());
+        Assertions.assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(50_000)), histogram.valueAtQuantile(0.5));
+        Assertions.assertEquals(LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(90_000)), histogram.valueAtQuantile(0.9));
+        // the upper bound of the last bucket is capped by the recorded maximum
+        Assertions.assertEquals(100_000, histogram.valueAtQuantile(1.0));
+        Assertions.assertEquals(0, new LatencyHistogram().valueAtQuantile(0.5));
+    }
+
+    @Test
+    public void prometheus_text_holds_a_summary_per_latency_and_a_counter_per_retry() {
+        Metrics.recordCommand("metricsTest \"quoted\"", TimeUnit.MILLISECONDS.toNanos(2));
+        Metrics.recordRetry("MetricsTest", "By.id: retried");
+        Metrics.recordRetry("MetricsTest", "By.id: retried");
+
+        String text = Metrics.toPrometheusText();
+        String labels = "{command=\"metricsTest \\\"quoted\\\"\"";
+        Assertions.assertTrue(text.contains("# TYPE driver_command_duration_seconds summary\n"));
+        Assertions.assertTrue(text.contains("driver_command_duration_seconds" + labels + ",quantile=\"0.5\"} 0.002\n"));
+        Assertions.assertTrue(text.contains("driver_command_duration_seconds" + labels + ",quantile=\"0.99\"} 0.002\n"));
+        Assertions.assertTrue(text.contains("driver_command_duration_seconds_sum" + labels + "} 0.002\n"));
+        Assertions.assertTrue(text.contains("driver_command_duration_seconds_count" + labels + "} 1\n"));
+        Assertions.assertTrue(text.contains("# TYPE page_helper_retries_total counter\n"));
+        Assertions.assertTrue(text.contains("page_helper_retries_total{page=\"MetricsTest\",locator=\"By.id: retried\"} 2\n"));
+    }
+}
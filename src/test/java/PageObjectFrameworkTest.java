@@ -0,0 +1,184 @@
+import core.metrics.InstrumentedCommandExecutor;
+import core.mock.MockAppiumServer;
+import core.waits.WaitEngine;
+import enums.Directions;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.options.UiAutomator2Options;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.DriverCommand;
+import pages.PageSnapshot;
+import pages.authentication.AuthenticationPage;
+import pages.locators.LocatorAnalyzer;
+import pages.locators.LocatorCost;
+import pages.products.ProductsPage;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exercises the wait, retry, scroll and caching logic of the page objects against the in-process
+ * {@link MockAppiumServer}, no device needed. Run only these tests with `mvn test -Dgroups=Framework`.
+ */
+@Tag("Framework")
+public class PageObjectFrameworkTest {
+    private static final String PASSWORD = "secret_sauce";
+
+    private MockAppiumServer server;
+    private AppiumDriver driver;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        server = MockAppiumServer.start();
+        driver = createDriver();
+    }
+
+    @AfterEach
+    public void teardown() {
+        // setup may have failed before the session or the server existed
+        if (driver != null) driver.quit();
+        if (server != null) server.close();
+    }
+
+    // # waits and transitions
+    @Test
+    public void products_screen_is_waited_for_after_a_slow_transition() {
+        server.setTransitionDelay(Duration.ofMillis(300));
+
+        new AuthenticationPage(driver).authenticate("standard_user", PASSWORD);
+        ProductsPage productsPage = new ProductsPage(driver);
+        Assertions.assertTrue(productsPage.isDisplayed(productsPage.getProductsPageTitle()));
+    }
+
+    @Test
+    public void late_login_button_is_waited_for() {
+        server.delayAppearance("//*[@content-desc='test-LOGIN']", Duration.ofMillis(300));
+
+        new AuthenticationPage(driver).authenticate("problem_user", PASSWORD);
+        ProductsPage productsPage = new ProductsPage(driver);
+        Assertions.assertTrue(productsPage.isDisplayed(productsPage.getProductsPageTitle()));
+    }
+
+    @Test
+    public void error_message_is_read_after_a_failed_login() {
+        AuthenticationPage authenticationPage = new AuthenticationPage(driver);
+        authenticationPage.authenticate("locked_out_user", PASSWORD);
+        Assertions.assertEquals("Sorry, this user has been locked out.", authenticationPage.getErrorMessageText());
+    }
+
+    // # retries
+    @Test
+    public void text_is_entered_into_a_field_that_went_stale() {
+        server.makeStale("//*[@content-desc='test-Username']", 2);
+
+        AuthenticationPage authenticationPage = new AuthenticationPage(driver);
+        authenticationPage.enterUsername("standard_user");
+        PageSnapshot snapshot = authenticationPage.captureState(authenticationPage.getUsernameField());
+        Assertions.assertEquals("standard_user", snapshot.getText(authenticationPage.getUsernameField()));
+    }
+
+    // # scrolling
+    @Test
+    public void autofill_button_below_the_screen_is_scrolled_to() {
+        AuthenticationPage authenticationPage = new AuthenticationPage(driver);
+        authenticationPage.swipeToElement(authenticationPage.getProblemUserAutofillBtn(), Directions.DOWN);
+        authenticationPage.clickProblemUserAutofillBtn();
+        authenticationPage.swipeToElement(authenticationPage.getUsernameField(), Directions.UP);
+
+        PageSnapshot snapshot = authenticationPage.captureState(authenticationPage.getUsernameField(), authenticationPage.getPasswordField());
+        Assertions.assertEquals("problem_user", snapshot.getText(authenticationPage.getUsernameField()));
+        Assertions.assertEquals(PASSWORD.length(), snapshot.getText(authenticationPage.getPasswordField()).length());
+    }
+
+    // # hierarchy cache
+    @Test
+    public void repeated_reads_of_an_element_pull_the_page_source_once() {
+        new AuthenticationPage(driver).authenticate("standard_user", PASSWORD);
+
+        ProductsPage productsPage = new ProductsPage(driver);
+        Assertions.assertTrue(productsPage.isDisplayed(productsPage.getProductsPageTitle()));
+        long pageSourcePulls = server.getCommandCount(DriverCommand.GET_PAGE_SOURCE);
+        for (int read = 0; read < 10; read++) {
+            Assertions.assertTrue(productsPage.isDisplayed(productsPage.getProductsPageTitle()));
+        }
+        Assertions.assertEquals(pageSourcePulls, server.getCommandCount(DriverCommand.GET_PAGE_SOURCE));
+    }
+
+    // # locator analysis
+    @Test
+    public void only_rewrites_that_find_the_same_element_are_verified() {
+        new AuthenticationPage(driver).authenticate("locked_out_user", PASSWORD);
+
+        List<LocatorCost> costs = new LocatorAnalyzer(Arrays.stream(XPathLocators.class.getDeclaredFields())
+                .map(field -> new LocatorAnalyzer.PageLocator(XPathLocators.class, field, field.getAnnotation(AndroidFindBy.class)))
+                .toList()).analyze(driver);
+        LocatorCost errorMessage = costOf(costs, "errorMessage");
+        Assertions.assertTrue(errorMessage.matches());
+        Assertions.assertEquals(Boolean.TRUE, errorMessage.equivalent());
+
+        // neither the xpath nor its rewrite finds the title on the login screen, which proves nothing
+        LocatorCost productsTitle = costOf(costs, "productsTitle");
+        Assertions.assertFalse(productsTitle.matches());
+        Assertions.assertEquals(Boolean.FALSE, productsTitle.equivalent());
+        Assertions.assertFalse(productsTitle.isVerifiedFaster());
+    }
+
+    // # load
+    @Test
+    public void concurrent_sessions_log_in_on_virtual_threads() throws Exception {
+        server.setCommandLatency(Duration.ofMillis(5));
+
+        List<Future<Boolean>> logins = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int session = 0; session < 20; session++) {
+                logins.add(executor.submit(() -> {
+                    AppiumDriver sessionDriver = createDriver();
+                    try {
+                        new AuthenticationPage(sessionDriver).authenticate("standard_user", PASSWORD);
+                        ProductsPage productsPage = new ProductsPage(sessionDriver);
+                        return productsPage.isDisplayed(productsPage.getProductsPageTitle());
+                    } finally {
+                        sessionDriver.quit();
+                    }
+                }));
+            }
+        }
+
+        for (Future<Boolean> login : logins) {
+            Assertions.assertTrue(login.get());
+        }
+        Assertions.assertEquals(21, server.getSessionCount());
+    }
+
+    private AppiumDriver createDriver() {
+        AppiumDriver driver = new AppiumDriver(new InstrumentedCommandExecutor(server.getUrl()), new UiAutomator2Options());
+        WaitEngine.disableImplicitWait(driver);
+        return driver;
+    }
+
+    private static LocatorCost costOf(List<LocatorCost> costs, String field) {
+        return costs.stream().filter(cost -> cost.field().equals(field)).findFirst().orElseThrow();
+    }
+
+    /**
+     * The xpath locators the page objects used before their UiSelector rewrites.
+     */
+    static class XPathLocators {
+        @AndroidFindBy(xpath = "//android.view.ViewGroup[@content-desc='test-Error message'] //android.widget.TextView")
+        WebElement errorMessage;
+
+        @AndroidFindBy(xpath = "//android.widget.TextView[@text='PRODUCTS']")
+        WebElement productsTitle;
+    }
+}
@@ -0,0 +1,19 @@
+import core.BaseTest;
+import core.fixtures.AppState;
+import core.history.TouchesPages;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pages.authentication.AuthenticationPage;
+import pages.products.ProductsPage;
+
+@TouchesPages({AuthenticationPage.class, ProductsPage.class})
+public class ProductsPageTest extends BaseTest {
+
+    @Test
+    @Tag("Positive")
+    public void products_page_is_displayed_for_a_logged_in_standard_user() {
+        app().reach(AppState.PRODUCTS_AS_STANDARD_USER);
+        Assertions.assertTrue(app().productsPage().isDisplayed(app().productsPage().getProductsPageTitle()));
+    }
+}
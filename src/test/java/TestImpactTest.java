@@ -0,0 +1,70 @@
+import core.history.TestImpact;
+import core.history.TouchesPages;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pages.authentication.AuthenticationPage;
+import pages.products.ProductsPage;
+
+import java.util.Set;
+
+/**
+ * Checks which tests {@link TestImpact} selects for a set of changes.
+ */
+@Tag("Framework")
+public class TestImpactTest {
+
+    @Test
+    public void change_to_a_page_selects_the_tests_that_touch_it() {
+        TestImpact impact = TestImpact.of(Set.of("src/main/java/pages/products/ProductsPage.java"));
+
+        Assertions.assertTrue(impact.isAffected(TouchesProducts.class, touchedPages(TouchesProducts.class)));
+        Assertions.assertFalse(impact.isAffected(TouchesAuthentication.class, touchedPages(TouchesAuthentication.class)));
+        Assertions.assertTrue(impact.isAffected(TouchesNothing.class, null));
+    }
+
+    @Test
+    public void page_changes_are_read_from_class_names_as_well() {
+        TestImpact impact = TestImpact.of(Set.of("pages.authentication.AuthenticationPage"));
+
+        Assertions.assertTrue(impact.isAffected(TouchesAuthentication.class, touchedPages(TouchesAuthentication.class)));
+        Assertions.assertFalse(impact.isAffected(TouchesProducts.class, touchedPages(TouchesProducts.class)));
+    }
+
+    @Test
+    public void change_to_a_test_selects_that_test() {
+        TouchesPages authentication = touchedPages(TouchesAuthentication.class);
+
+        Assertions.assertTrue(TestImpact.of(Set.of("src/test/java/TestImpactTest.java")).isAffected(TestImpactTest.class, authentication));
+        Assertions.assertFalse(TestImpact.of(Set.of("src/test/java/ProductsPageTest.java")).isAffected(TestImpactTest.class, authentication));
+    }
+
+    @Test
+    public void change_to_the_framework_or_the_build_selects_every_test() {
+        for (String change : Set.of("src/main/java/pages/BasePage.java", "src/test/java/core/AppExtension.java", "pom.xml", "core.App")) {
+            TestImpact impact = TestImpact.of(Set.of(change));
+            Assertions.assertTrue(impact.isAffected(TouchesProducts.class, touchedPages(TouchesProducts.class)), change);
+        }
+    }
+
+    @Test
+    public void change_outside_the_sources_selects_no_test() {
+        TestImpact impact = TestImpact.of(Set.of("README.md", "docs/setup.md"));
+        Assertions.assertFalse(impact.isAffected(TouchesProducts.class, touchedPages(TouchesProducts.class)));
+    }
+
+    private static TouchesPages touchedPages(Class<?> testClass) {
+        return testClass.getAnnotation(TouchesPages.class);
+    }
+
+    @TouchesPages(ProductsPage.class)
+    static class TouchesProducts {
+    }
+
+    @TouchesPages(AuthenticationPage.class)
+    static class TouchesAuthentication {
+    }
+
+    static class TouchesNothing {
+    }
+}
@@ -0,0 +1,53 @@
+import core.reporting.Throughput;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Checks the sliding window and the ETA of the {@link Throughput} of a run, no device needed.
+ */
+@Tag("Framework")
+public class ThroughputTest {
+    private static final long START = 1_000_000_000L;
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    public void throughput_is_counted_over_the_window_per_device() {
+        Throughput throughput = new Throughput(Duration.ofMinutes(1), START);
+        for (int second = 10; second <= 100; second += 10) {
+            throughput.recordFinish("emulator-5554", START + second * SECOND);
+        }
+        throughput.recordFinish("emulator-5556", START + 90 * SECOND);
+
+        // the finishes of the last minute, 50 to 100 seconds
+        Assertions.assertEquals(Map.of("emulator-5554", 6.0, "emulator-5556", 1.0), throughput.testsPerMinute(START + 110 * SECOND));
+    }
+
+    @Test
+    public void window_does_not_reach_back_before_the_run_started() {
+        Throughput throughput = new Throughput(Duration.ofMinutes(1), START);
+        throughput.recordFinish("emulator-5554", START + 10 * SECOND);
+        throughput.recordFinish("emulator-5554", START + 20 * SECOND);
+
+        // 2 tests in the 30 seconds the run has been going
+        Assertions.assertEquals(4.0, throughput.testsPerMinute(START + 30 * SECOND).get("emulator-5554"));
+    }
+
+    @Test
+    public void device_that_went_quiet_drops_to_zero() {
+        Throughput throughput = new Throughput(Duration.ofMinutes(1), START);
+        throughput.recordFinish("emulator-5554", START + 10 * SECOND);
+
+        Assertions.assertEquals(0.0, throughput.testsPerMinute(START + 71 * SECOND).get("emulator-5554"));
+    }
+
+    @Test
+    public void eta_is_the_remaining_tests_at_the_pace_of_all_devices() {
+        Assertions.assertEquals(Duration.ofSeconds(90), Throughput.eta(12, Map.of("emulator-5554", 6.0, "emulator-5556", 2.0)));
+        Assertions.assertEquals(Duration.ZERO, Throughput.eta(0, Map.of()));
+        Assertions.assertNull(Throughput.eta(5, Map.of("emulator-5554", 0.0)));
+    }
+}
@@ -0,0 +1,40 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import pages.hierarchy.UiHierarchy;
+import pages.hierarchy.UiNode;
+
+/**
+ * Checks the locator xpaths the {@link UiHierarchy} answers from its index, no device needed.
+ */
+@Tag("Framework")
+public class UiHierarchyTest {
+    private static final String PAGE_SOURCE = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <hierarchy index="0" class="hierarchy" rotation="0" width="1080" height="2280">
+              <android.widget.FrameLayout index="0" class="android.widget.FrameLayout" text="" content-desc="" resource-id="" bounds="[0,0][1080,2280]" displayed="true">
+                <android.widget.EditText index="0" class="android.widget.EditText" text="" content-desc="test-Username" resource-id="" bounds="[0,100][1080,200]" displayed="true"/>
+                <android.widget.TextView index="1" class="android.widget.TextView" text="PRODUCTS" content-desc="" resource-id="" bounds="[0,200][1080,300]" displayed="true"/>
+              </android.widget.FrameLayout>
+            </hierarchy>
+            """;
+
+    @Test
+    public void empty_text_is_matched_like_any_other_value() {
+        UiHierarchy hierarchy = new UiHierarchy(PAGE_SOURCE);
+
+        UiNode username = hierarchy.find("//android.widget.EditText[@text='']");
+        Assertions.assertNotNull(username);
+        Assertions.assertEquals("test-Username", username.getContentDesc());
+        Assertions.assertEquals("android.widget.FrameLayout", hierarchy.find("//*[@text='']").getClassName());
+    }
+
+    @Test
+    public void indexed_values_are_found_and_missing_ones_are_not() {
+        UiHierarchy hierarchy = new UiHierarchy(PAGE_SOURCE);
+
+        Assertions.assertEquals("PRODUCTS", hierarchy.find("//*[@text='PRODUCTS']").getText());
+        Assertions.assertNotNull(hierarchy.find("//*[@content-desc='test-Username']"));
+        Assertions.assertNull(hierarchy.find("//*[@text='CART']"));
+    }
+}
@@ -0,0 +1,71 @@
+package core;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import pages.locators.LocatorAnalyzer;
+
+import java.lang.reflect.Method;
+
+/**
+ * Gives every test its own {@link App} and binds it in the {@link TestScope} around the test and its lifecycle
+ * methods. Every invocation runs on the JUnit worker that set the test up: the JUnit 5.10 executor holds a platform
+ * thread per running test either way, so a hop to a virtual thread would only add a second thread per test. The
+ * sessions a test drives at once run on virtual threads, see {@link BaseTest#onDevices(int, TestScope.Task)}.
+ */
+public class AppExtension implements BeforeEachCallback, AfterEachCallback, InvocationInterceptor {
+    // the key of the report entry that holds the udid of the device a test runs on
+    public static final String DEVICE_ENTRY = "device";
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(AppExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) throws Exception {
+        App app = new App();
+        app.config();
+        context.getStore(NAMESPACE).put(App.class, app);
+        // tells the reporters which device runs the test
+        context.publishReportEntry(DEVICE_ENTRY, app.getDevice().udid());
+
+        LocatorAnalyzer.analyzeOnceIfEnabled(app.getDriver());
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        App app = context.getStore(NAMESPACE).remove(App.class, App.class);
+        if (app != null) app.releaseDriver();
+    }
+
+    /**
+     * Returns the app of a test, null before the test is set up or after it's torn down.
+     *
+     * @param context the extension context of the test
+     */
+    public static App appOf(ExtensionContext context) {
+        return context.getStore(NAMESPACE).get(App.class, App.class);
+    }
+
+    @Override
+    public void interceptBeforeEachMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                          ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptAfterEachMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                         ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    private static void proceed(Invocation<Void> invocation, ExtensionContext context) throws Throwable {
+        TestScope.callWith(appOf(context), invocation::proceed);
+    }
+}
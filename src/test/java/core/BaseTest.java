@@ -1,25 +1,57 @@
 package core;
 
 import config.ConfigurationManager;
-import org.junit.jupiter.api.AfterEach;
+import core.history.TestHistoryExtension;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.ExtendWith;
 
-import java.net.MalformedURLException;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * The base of the suites that run on the registered devices, excluded from a plain `mvn test`, run them with
+ * `mvn test -Pdevices`.
+ */
+@Tag("Device")
+@ExtendWith({TestHistoryExtension.class, AppExtension.class, FlakyTestExtension.class, FailureArtifactsExtension.class})
 public class BaseTest {
-    protected App app;
     protected ConfigurationManager configurationManager;
 
     @BeforeEach
-    public void setup() throws MalformedURLException {
-        configurationManager = new ConfigurationManager();
+    public void setup() {
+        configurationManager = ConfigurationManager.getInstance();
+    }
 
-        app = new App();
-        app.config();
+    /**
+     * Returns the app of the running test, see {@link TestScope}.
+     */
+    protected App app() {
+        return TestScope.app();
     }
 
-    @AfterEach
-    public void tearDown() {
-        app.quitDriver();
+    /**
+     * Runs a task on the app of the test and on more devices at once, each app on its own virtual thread, see
+     * {@link TestScope#callConcurrently(List, TestScope.Task)}. The extra devices are taken from the free ones and
+     * released afterwards, so a test asking for more devices than are registered waits for the acquire timeout.
+     *
+     * @param devices the number of devices to drive, the device of the test included
+     * @param task    the task to run for every app, reads its app through {@link #app()}
+     * @return the results of the task, the one of the test's app first
+     */
+    protected <T> List<T> onDevices(int devices, TestScope.Task<T> task) throws Throwable {
+        List<App> apps = new ArrayList<>(List.of(app()));
+        try {
+            while (apps.size() < devices) {
+                App app = new App();
+                app.config();
+                apps.add(app);
+            }
+            return TestScope.callConcurrently(apps, task);
+        } finally {
+            for (App app : apps.subList(1, apps.size())) {
+                app.releaseDriver();
+            }
+        }
     }
 }
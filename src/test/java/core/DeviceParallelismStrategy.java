@@ -0,0 +1,59 @@
+package core;
+
+import core.devices.DeviceScheduler;
+import org.junit.platform.engine.ConfigurationParameters;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfiguration;
+import org.junit.platform.engine.support.hierarchical.ParallelExecutionConfigurationStrategy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+/**
+ * Sizes the JUnit fork-join pool to the number of registered devices, so there is exactly one test in flight
+ * per device. Idle workers steal queued tests from busy ones, which keeps every device busy until the end of the run.
+ * <p>
+ * The pool never grows past the device count. A worker that blocks, e.g. the Selenium HTTP client waiting on a
+ * `CompletableFuture`, asks the pool for a compensating worker, which the saturated pool declines instead of failing
+ * the test. The {@link core.devices.DeviceScheduler} stays the limit of one test per device.
+ */
+public class DeviceParallelismStrategy implements ParallelExecutionConfigurationStrategy {
+    private static final int KEEP_ALIVE_SECONDS = 30;
+
+    @Override
+    public ParallelExecutionConfiguration createConfiguration(ConfigurationParameters configurationParameters) {
+        int devices = DeviceScheduler.getInstance().getRegistry().size();
+
+        return new ParallelExecutionConfiguration() {
+            @Override
+            public int getParallelism() {
+                return devices;
+            }
+
+            @Override
+            public int getMinimumRunnable() {
+                return devices;
+            }
+
+            @Override
+            public int getMaxPoolSize() {
+                return devices;
+            }
+
+            @Override
+            public int getCorePoolSize() {
+                return devices;
+            }
+
+            @Override
+            public int getKeepAliveSeconds() {
+                return KEEP_ALIVE_SECONDS;
+            }
+
+            @Override
+            public Predicate<? super ForkJoinPool> getSaturatePredicate() {
+                // a blocked worker carries on without a replacement, a full pool would otherwise reject the block
+                return pool -> true;
+            }
+        };
+    }
+}
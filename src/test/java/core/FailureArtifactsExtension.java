@@ -0,0 +1,41 @@
+package core;
+
+import core.artifacts.ArtifactPipeline;
+import core.history.TestHistoryExtension;
+import io.appium.java_client.AppiumDriver;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.logging.Logger;
+
+/**
+ * Captures a screenshot and the page source of a failed test before the driver goes back to the pool, and leaves
+ * the processing and writing to the {@link ArtifactPipeline}.
+ */
+public class FailureArtifactsExtension implements AfterTestExecutionCallback {
+    private static final Logger LOGGER = Logger.getLogger(FailureArtifactsExtension.class.getName());
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Throwable failure = context.getExecutionException().orElse(null);
+        App app = AppExtension.appOf(context);
+        if (failure == null || app == null || app.getDriver() == null) return;
+
+        AppiumDriver driver = app.getDriver();
+
+        byte[] screenshot = null;
+        String pageSource = null;
+        try {
+            screenshot = driver.getScreenshotAs(OutputType.BYTES);
+            pageSource = driver.getPageSource();
+        } catch (WebDriverException e) {
+            LOGGER.info("Failed to capture the failure artifacts: " + e.getMessage());
+        }
+
+        ArtifactPipeline.getInstance().submit(
+                TestHistoryExtension.testId(context.getRequiredTestClass(), context.getRequiredTestMethod()),
+                failure.toString(), screenshot, pageSource);
+    }
+}
@@ -0,0 +1,190 @@
+package core;
+
+import config.ConfigurationManager;
+import core.flaky.FailureKind;
+import core.flaky.FlakyStats;
+import core.history.TestHistoryExtension;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherConfig;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Reruns a test that failed for a reason a rerun may fix, see {@link FailureKind}, and records which tests only
+ * passed on a rerun in the {@link FlakyStats}. Before every rerun the session of the test is quit, then the test
+ * method is discovered and executed again by a nested launcher: a new test instance goes through the whole lifecycle,
+ * lifecycle methods and extensions included, and leases a fresh session. The report entries of the rerun, such as
+ * the device it runs on, are published on the test that failed.
+ * <p>
+ * A test is rerun at most `rerun.maxReruns` times, and all reruns of a run share the `rerun.budgetSeconds` budget,
+ * so a broken device can't double the duration of the run. A test that fails on every rerun reports its first
+ * failure, the failures of the reruns are added as suppressed.
+ * <p>
+ * Registered with `@ExtendWith`, the extension records into the shared {@link FlakyStats#getInstance()}, saved when
+ * the JVM exits. Registered with `@RegisterExtension`, it can record into a {@link FlakyStats} of its own.
+ */
+public class FlakyTestExtension implements InvocationInterceptor {
+    // the keys of the report entry published before every rerun
+    public static final String RETRY_ENTRY = "retry";
+    public static final String KIND_ENTRY = "failureKind";
+    // the configuration parameter that marks the nested run of a rerun, which reports to the run that started it
+    public static final String RERUN_PARAMETER = "flaky.rerun";
+
+    private static final Logger LOGGER = Logger.getLogger(FlakyTestExtension.class.getName());
+    private static final ConfigurationManager CONFIGURATION = ConfigurationManager.getInstance();
+
+    private static final int MAX_RERUNS = CONFIGURATION.getMaxReruns();
+    private static final AtomicLong BUDGET_NANOS = new AtomicLong(CONFIGURATION.getRerunBudget().toNanos());
+
+    private static final AtomicBoolean SAVE_ON_EXIT = new AtomicBoolean();
+
+    private final FlakyStats flakyStats;
+
+    public FlakyTestExtension() {
+        this(FlakyStats.getInstance());
+        // only a run that records into the shared statistics saves them
+        if (SAVE_ON_EXIT.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                FlakyStats shared = FlakyStats.getInstance();
+                String summary = shared.summary();
+                if (!summary.isEmpty()) LOGGER.info("Flaky tests:\n" + summary);
+                shared.save();
+            }, "flaky-stats-save"));
+        }
+    }
+
+    /**
+     * Creates an extension that records into the given statistics, nothing is saved on exit.
+     *
+     * @param flakyStats the statistics to record into
+     */
+    public FlakyTestExtension(FlakyStats flakyStats) {
+        this.flakyStats = flakyStats;
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation, ReflectiveInvocationContext<Method> invocationContext,
+                                    ExtensionContext extensionContext) throws Throwable {
+        if (isRerun(extensionContext)) {
+            invocation.proceed();
+            return;
+        }
+
+        String testId = TestHistoryExtension.testId(extensionContext.getRequiredTestClass(), extensionContext.getRequiredTestMethod());
+        try {
+            invocation.proceed();
+        } catch (Throwable failure) {
+            FailureKind kind = FailureKind.of(failure);
+            int reruns = 0;
+            while (kind.isRerunnable() && reruns < MAX_RERUNS && BUDGET_NANOS.get() > 0) {
+                reruns++;
+                LOGGER.info("Rerunning " + testId + " (" + reruns + "/" + MAX_RERUNS + ") after a " + kind + " failure: " + failure);
+
+                long start = System.nanoTime();
+                try {
+                    rerun(extensionContext, reruns, kind);
+                    flakyStats.record(testId, reruns, kind, true);
+                    LOGGER.info(testId + " is flaky, it passed on rerun " + reruns);
+                    return;
+                } catch (Throwable rerunFailure) {
+                    failure.addSuppressed(rerunFailure);
+                } finally {
+                    BUDGET_NANOS.addAndGet(-(System.nanoTime() - start));
+                }
+            }
+            flakyStats.record(testId, reruns, kind, false);
+            throw failure;
+        }
+        flakyStats.record(testId, 0, null, true);
+    }
+
+    /**
+     * Returns whether a test runs as the rerun of a failed test, see {@link #RERUN_PARAMETER}.
+     *
+     * @param context the extension context of the test
+     */
+    public static boolean isRerun(ExtensionContext context) {
+        return context.getConfigurationParameter(RERUN_PARAMETER).isPresent();
+    }
+
+    private static void rerun(ExtensionContext extensionContext, int rerun, FailureKind kind) throws Throwable {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put(RETRY_ENTRY, String.valueOf(rerun));
+        entry.put(KIND_ENTRY, kind.name());
+        // the failed session may be broken, the rerun leases its own
+        App app = AppExtension.appOf(extensionContext);
+        if (app != null && app.getDevice() != null) {
+            entry.put(AppExtension.DEVICE_ENTRY, app.getDevice().udid());
+            app.quitDriver();
+        }
+        extensionContext.publishReportEntry(entry);
+
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(DiscoverySelectors.selectMethod(extensionContext.getRequiredTestClass(), extensionContext.getRequiredTestMethod()))
+                .configurationParameter(RERUN_PARAMETER, String.valueOf(rerun))
+                // the rerun already holds a worker of the outer run
+                .configurationParameter("junit.jupiter.execution.parallel.enabled", "false")
+                .build();
+        RerunListener listener = new RerunListener(extensionContext);
+        // the reporters of the outer run only see the rerun through its report entries
+        LauncherFactory.create(LauncherConfig.builder().enableTestExecutionListenerAutoRegistration(false).build())
+                .execute(request, listener);
+        listener.rethrowFailure();
+    }
+
+    /**
+     * Forwards the report entries of a rerun to the test that failed, and keeps the outcome of the rerun.
+     */
+    private static final class RerunListener implements TestExecutionListener {
+        private final ExtensionContext extensionContext;
+        private TestExecutionResult result;
+        private String skipReason;
+
+        private RerunListener(ExtensionContext extensionContext) {
+            this.extensionContext = extensionContext;
+        }
+
+        @Override
+        public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+            if (testIdentifier.isTest()) extensionContext.publishReportEntry(entry.getKeyValuePairs());
+        }
+
+        @Override
+        public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+            if (skipReason == null) skipReason = reason;
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+            // a failed container, e.g. a failing @BeforeAll, fails the rerun as well
+            if (testIdentifier.isTest() || testExecutionResult.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+                if (result == null || result.getStatus() == TestExecutionResult.Status.SUCCESSFUL) result = testExecutionResult;
+            }
+        }
+
+        private void rethrowFailure() throws Throwable {
+            if (result == null) {
+                throw new IllegalStateException("The rerun of " + extensionContext.getUniqueId() + " didn't run"
+                        + (skipReason == null ? "" : ": " + skipReason));
+            }
+            if (result.getStatus() != TestExecutionResult.Status.SUCCESSFUL) {
+                throw result.getThrowable().orElseGet(() -> new IllegalStateException("The rerun " + result.getStatus()));
+            }
+        }
+    }
+}
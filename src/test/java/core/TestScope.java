@@ -0,0 +1,117 @@
+package core;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The per-test context: the {@link App} of the running test, bound for the duration of each test method and
+ * lifecycle method invocation by the {@link AppExtension}. Test code reads it through {@link BaseTest#app()}, so
+ * nothing is kept in test instance fields and the invocation can run on any thread. A test that drives several
+ * apps at once runs them on virtual threads with {@link #callConcurrently(List, Task)}, each with its app bound.
+ */
+public final class TestScope {
+    // bound and unbound around every invocation, the way a ScopedValue would be once it leaves preview
+    private static final ThreadLocal<App> CURRENT_APP = new ThreadLocal<>();
+
+    /**
+     * A test invocation, which may throw anything a test can throw.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws Throwable;
+    }
+
+    private TestScope() {
+    }
+
+    /**
+     * Returns the app of the running test.
+     *
+     * @throws IllegalStateException if called outside a test invocation
+     */
+    public static App app() {
+        App app = CURRENT_APP.get();
+        if (app == null) throw new IllegalStateException("No app is bound, the caller doesn't run inside a test invocation.");
+        return app;
+    }
+
+    /**
+     * Returns the app of the running test, for code that may also run outside a test invocation.
+     *
+     * @return the app, null outside a test invocation
+     */
+    public static App current() {
+        return CURRENT_APP.get();
+    }
+
+    /**
+     * Runs a task with the app bound, and unbinds it afterwards.
+     *
+     * @param app  the app of the test
+     * @param task the task to run
+     * @return the result of the task
+     */
+    static <T> T callWith(App app, Task<T> task) throws Throwable {
+        App previous = CURRENT_APP.get();
+        CURRENT_APP.set(app);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT_APP.remove();
+            } else {
+                CURRENT_APP.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a task once per app, each on its own virtual thread with the app bound, and waits for all of them. The
+     * blocking driver calls of the tasks park their virtual threads, so driving N apps takes a single platform
+     * thread, the one of the test, which waits for the results.
+     *
+     * @param apps the apps to drive
+     * @param task the task to run for every app, reads its app through {@link #app()}
+     * @return the results of the task, in the order of the apps
+     * @throws Throwable the first failure of the tasks, the failures of the others are added as suppressed
+     */
+    public static <T> List<T> callConcurrently(List<App> apps, Task<T> task) throws Throwable {
+        List<Future<T>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (App app : apps) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return callWith(app, task);
+                    } catch (Exception | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        // a Throwable that is neither, which a Callable can't throw
+                        throw new UndeclaredThrowableException(e);
+                    }
+                }));
+            }
+        }
+
+        List<T> results = new ArrayList<>();
+        Throwable failure = null;
+        for (Future<T> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() instanceof UndeclaredThrowableException wrapped ? wrapped.getCause() : e.getCause();
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) throw failure;
+        return results;
+    }
+}
@@ -0,0 +1,61 @@
+package core.flaky;
+
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+
+import java.io.IOException;
+
+/**
+ * What made a test fail. Only failures caused by the device, the session or the timing of the UI are worth a rerun,
+ * a failed assertion or a broken locator fails the same way every time.
+ */
+public enum FailureKind {
+    // the session died, couldn't be created or the server couldn't be reached
+    INFRASTRUCTURE(true),
+    // an element went stale on every retry
+    STALENESS(true),
+    // an element didn't show up in time, or wasn't found at the end of a list
+    TIMEOUT(true),
+    // the app didn't behave as the test expects
+    ASSERTION(false),
+    // anything else, e.g. an invalid locator or a bug in the test
+    OTHER(false);
+
+    private final boolean rerunnable;
+
+    FailureKind(boolean rerunnable) {
+        this.rerunnable = rerunnable;
+    }
+
+    public boolean isRerunnable() {
+        return rerunnable;
+    }
+
+    /**
+     * Classifies a failure by the first telling exception in its cause chain.
+     *
+     * @param failure the failure of a test
+     * @return the kind of the failure
+     */
+    public static FailureKind of(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AssertionError) return ASSERTION;
+            // an invalid selector is a not found exception too, but no rerun will fix it
+            if (cause instanceof InvalidSelectorException) return OTHER;
+            if (cause instanceof StaleElementReferenceException) return STALENESS;
+            if (cause instanceof TimeoutException || cause instanceof NotFoundException) return TIMEOUT;
+            if (cause instanceof NoSuchSessionException || cause instanceof SessionNotCreatedException
+                    || cause instanceof UnreachableBrowserException || cause instanceof IOException) {
+                return INFRASTRUCTURE;
+            }
+        }
+        // any other driver failure, e.g. an unknown server-side error
+        return failure instanceof WebDriverException ? INFRASTRUCTURE : OTHER;
+    }
+}
@@ -0,0 +1,145 @@
+package core.flaky;
+
+import config.ConfigurationManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-test flakiness statistics, kept across runs in the properties file given by the `rerun.stats.file`
+ * configuration key. A test is flaky when it failed and then passed on a rerun.
+ */
+public class FlakyStats {
+    private static final FlakyStats INSTANCE = new FlakyStats(ConfigurationManager.getInstance().getFlakyStatsFile());
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The flakiness of a single test.
+     *
+     * @param runs         the number of runs, reruns not included
+     * @param reruns       the number of reruns
+     * @param flakyPasses  the number of runs that failed and then passed on a rerun
+     * @param failures     the number of runs that failed for good, by kind of the first failure
+     */
+    public record Entry(long runs, long reruns, long flakyPasses, Map<FailureKind, Long> failures) {
+
+        public double flakinessRate() {
+            return runs == 0 ? 0 : (double) flakyPasses / runs;
+        }
+
+        Entry plus(Entry other) {
+            Map<FailureKind, Long> mergedFailures = new EnumMap<>(FailureKind.class);
+            mergedFailures.putAll(failures);
+            other.failures().forEach((kind, count) -> mergedFailures.merge(kind, count, Long::sum));
+            return new Entry(runs + other.runs(), reruns + other.reruns(), flakyPasses + other.flakyPasses(), mergedFailures);
+        }
+    }
+
+    /**
+     * Loads the statistics kept in a file, the shared instance keeps them in `rerun.stats.file`.
+     *
+     * @param file the properties file, created on the first save
+     */
+    public FlakyStats(Path file) {
+        this.file = file;
+        load();
+    }
+
+    public static FlakyStats getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the statistics of a test.
+     *
+     * @param testId the test id, `<class name>#<method name>`
+     * @return the statistics, null if the test never ran
+     */
+    public Entry get(String testId) {
+        return entries.get(testId);
+    }
+
+    /**
+     * Records a finished run of a test.
+     *
+     * @param testId       the test id
+     * @param reruns       the number of reruns the run took
+     * @param firstFailure the kind of the first failure, null if the test passed at once
+     * @param passed       whether the test passed in the end
+     */
+    public void record(String testId, int reruns, FailureKind firstFailure, boolean passed) {
+        Map<FailureKind, Long> failures = new EnumMap<>(FailureKind.class);
+        if (!passed) failures.put(firstFailure, 1L);
+
+        boolean flaky = passed && firstFailure != null;
+        entries.merge(testId, new Entry(1, reruns, flaky ? 1 : 0, failures), Entry::plus);
+    }
+
+    /**
+     * Lists the flaky tests, the flakiest first.
+     */
+    public String summary() {
+        return entries.entrySet().stream()
+                .filter(entry -> entry.getValue().flakyPasses() > 0)
+                .sorted(Comparator.comparingDouble((Map.Entry<String, Entry> entry) -> entry.getValue().flakinessRate()).reversed())
+                .map(entry -> String.format("%5.1f%% %s (%d of %d runs passed on a rerun)", entry.getValue().flakinessRate() * 100,
+                        entry.getKey(), entry.getValue().flakyPasses(), entry.getValue().runs()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    public synchronized void save() {
+        Properties properties = new Properties();
+        entries.forEach((testId, entry) -> {
+            StringBuilder value = new StringBuilder(entry.runs() + "," + entry.reruns() + "," + entry.flakyPasses());
+            for (FailureKind kind : FailureKind.values()) {
+                value.append(',').append(entry.failures().getOrDefault(kind, 0L));
+            }
+            properties.setProperty(testId, value.toString());
+        });
+
+        try {
+            if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                properties.store(writer, "flakiness per test: <runs>,<reruns>,<flaky passes>,<failures per kind: "
+                        + "infrastructure,staleness,timeout,assertion,other>");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save the flakiness statistics to " + file, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the flakiness statistics from " + file, e);
+        }
+
+        for (String testId : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(testId).split(",");
+            if (values.length != 3 + FailureKind.values().length) continue;
+
+            Map<FailureKind, Long> failures = new EnumMap<>(FailureKind.class);
+            for (FailureKind kind : FailureKind.values()) {
+                long count = Long.parseLong(values[3 + kind.ordinal()]);
+                if (count > 0) failures.put(kind, count);
+            }
+            entries.put(testId, new Entry(Long.parseLong(values[0]), Long.parseLong(values[1]), Long.parseLong(values[2]), failures));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package core.history;
+
+import org.junit.jupiter.api.ClassDescriptor;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.ClassOrdererContext;
+
+import java.lang.reflect.Method;
+import java.util.Comparator;
+
+/**
+ * Orders the test classes by the combined history of their tests, see {@link HistoricalOrder}.
+ */
+public class HistoricalClassOrderer implements ClassOrderer {
+
+    @Override
+    public void orderClasses(ClassOrdererContext context) {
+        Comparator<TestHistory.Entry> order = HistoricalOrder.fromConfiguration().comparator();
+
+        context.getClassDescriptors().sort(Comparator.comparing(
+                (ClassDescriptor descriptor) -> combinedHistory(descriptor.getTestClass()),
+                order));
+    }
+
+    /**
+     * Sums the durations and failures of the tests of a class, null if any of its tests never ran.
+     */
+    private static TestHistory.Entry combinedHistory(Class<?> testClass) {
+        double durationMillis = 0;
+        long runs = 0;
+        long failures = 0;
+        boolean lastFailed = false;
+
+        for (Method method : testClass.getMethods()) {
+            if (!method.isAnnotationPresent(org.junit.jupiter.api.Test.class)) continue;
+
+            TestHistory.Entry entry = TestHistory.getInstance().get(TestHistoryExtension.testId(testClass, method));
+            if (entry == null) return null;
+
+            durationMillis += entry.durationMillis();
+            runs += entry.runs();
+            failures += entry.failures();
+            lastFailed |= entry.lastFailed();
+        }
+        return new TestHistory.Entry(durationMillis, runs, failures, lastFailed);
+    }
+}
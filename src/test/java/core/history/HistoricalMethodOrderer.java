@@ -0,0 +1,32 @@
+package core.history;
+
+import org.junit.jupiter.api.MethodDescriptor;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.MethodOrdererContext;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+/**
+ * Orders the tests of a class by their history, see {@link HistoricalOrder}. The order only decides which tests
+ * start first, the tests of a class still run concurrently across the devices.
+ */
+public class HistoricalMethodOrderer implements MethodOrderer {
+
+    @Override
+    public Optional<ExecutionMode> getDefaultExecutionMode() {
+        // the inherited SAME_THREAD would run the tests of every class one at a time
+        return Optional.empty();
+    }
+
+    @Override
+    public void orderMethods(MethodOrdererContext context) {
+        Comparator<TestHistory.Entry> order = HistoricalOrder.fromConfiguration().comparator();
+
+        context.getMethodDescriptors().sort(Comparator.comparing(
+                (MethodDescriptor descriptor) -> TestHistory.getInstance().get(
+                        TestHistoryExtension.testId(context.getTestClass(), descriptor.getMethod())),
+                order));
+    }
+}
@@ -0,0 +1,47 @@
+package core.history;
+
+import config.ConfigurationManager;
+
+import java.util.Comparator;
+
+/**
+ * The order tests run in, picked with the `test.order` configuration key.
+ */
+public enum HistoricalOrder {
+    // the longest tests start first, so the short ones fill the gaps on the devices at the end of the run
+    LONGEST_FIRST,
+    // the tests most likely to fail start first, shortest first among equally flaky tests
+    FAIL_FAST;
+
+    // tests without history are treated as long and as likely to fail, so they are never left for last
+    private static final double UNKNOWN_DURATION_MILLIS = Double.MAX_VALUE;
+
+    /**
+     * Returns the order given by the `test.order` configuration key.
+     */
+    public static HistoricalOrder fromConfiguration() {
+        return valueOf(ConfigurationManager.getInstance().getTestOrder().toUpperCase().replace('-', '_'));
+    }
+
+    /**
+     * Returns the comparator of the order for test histories, null histories are tests that never ran.
+     */
+    public Comparator<TestHistory.Entry> comparator() {
+        Comparator<TestHistory.Entry> byDuration = Comparator.comparingDouble(HistoricalOrder::duration);
+
+        return switch (this) {
+            case LONGEST_FIRST -> byDuration.reversed();
+            case FAIL_FAST -> Comparator.<TestHistory.Entry, Boolean>comparing(entry -> entry == null || entry.lastFailed()).reversed()
+                    .thenComparing(Comparator.comparingDouble(HistoricalOrder::failureRate).reversed())
+                    .thenComparing(byDuration);
+        };
+    }
+
+    private static double duration(TestHistory.Entry entry) {
+        return entry == null ? UNKNOWN_DURATION_MILLIS : entry.durationMillis();
+    }
+
+    private static double failureRate(TestHistory.Entry entry) {
+        return entry == null ? 1 : entry.failureRate();
+    }
+}
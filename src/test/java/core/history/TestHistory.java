@@ -0,0 +1,103 @@
+package core.history;
+
+import config.ConfigurationManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-test duration and failure history, kept across runs in the properties file given by the `test.history.file`
+ * configuration key.
+ */
+public class TestHistory {
+    // weight of the newest run in the moving average of the duration
+    private static final double SMOOTHING_FACTOR = 0.5;
+
+    private static final TestHistory INSTANCE = new TestHistory(ConfigurationManager.getInstance().getTestHistoryFile());
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The history of a single test.
+     *
+     * @param durationMillis the moving average of the duration
+     * @param runs           the number of recorded runs
+     * @param failures       the number of failed runs
+     * @param lastFailed     whether the latest run failed
+     */
+    public record Entry(double durationMillis, long runs, long failures, boolean lastFailed) {
+
+        public double failureRate() {
+            return runs == 0 ? 0 : (double) failures / runs;
+        }
+    }
+
+    TestHistory(Path file) {
+        this.file = file;
+        load();
+    }
+
+    public static TestHistory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the history of a test.
+     *
+     * @param testId the test id, `<class name>#<method name>`
+     * @return the history, null if the test never ran
+     */
+    public Entry get(String testId) {
+        return entries.get(testId);
+    }
+
+    public void record(String testId, long durationMillis, boolean failed) {
+        entries.merge(testId, new Entry(durationMillis, 1, failed ? 1 : 0, failed), (previous, latest) -> new Entry(
+                previous.durationMillis() + SMOOTHING_FACTOR * (latest.durationMillis() - previous.durationMillis()),
+                previous.runs() + 1,
+                previous.failures() + latest.failures(),
+                latest.lastFailed()));
+    }
+
+    public synchronized void save() {
+        Properties properties = new Properties();
+        entries.forEach((testId, entry) -> properties.setProperty(testId, entry.durationMillis() + ","
+                + entry.runs() + "," + entry.failures() + "," + entry.lastFailed()));
+
+        try {
+            if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(file)) {
+                properties.store(writer, "test durations and failures: <duration ms>,<runs>,<failures>,<last failed>");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save the test history to " + file, e);
+        }
+    }
+
+    private void load() {
+        if (!Files.exists(file)) return;
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the test history from " + file, e);
+        }
+
+        for (String testId : properties.stringPropertyNames()) {
+            String[] values = properties.getProperty(testId).split(",");
+            if (values.length != 4) continue;
+
+            entries.put(testId, new Entry(Double.parseDouble(values[0]), Long.parseLong(values[1]),
+                    Long.parseLong(values[2]), Boolean.parseBoolean(values[3])));
+        }
+    }
+}
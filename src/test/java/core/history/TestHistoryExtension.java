@@ -0,0 +1,61 @@
+package core.history;
+
+import core.FlakyTestExtension;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+
+/**
+ * Records the duration and outcome of every test into the {@link TestHistory}, and skips the tests that
+ * {@link TestImpact} finds unaffected by the current changes.
+ */
+public class TestHistoryExtension implements ExecutionCondition, BeforeTestExecutionCallback, AfterTestExecutionCallback {
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(TestHistoryExtension.class);
+    private static final TestImpact TEST_IMPACT = TestImpact.fromConfiguration();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> TestHistory.getInstance().save(), "test-history-save"));
+    }
+
+    @Override
+    public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+        Class<?> testClass = context.getRequiredTestClass();
+        TouchesPages touchedPages = context.getTestMethod()
+                .map(method -> touchedPages(method, testClass))
+                .orElseGet(() -> testClass.getAnnotation(TouchesPages.class));
+
+        return TEST_IMPACT.isAffected(testClass, touchedPages)
+                ? ConditionEvaluationResult.enabled("affected by the changes")
+                : ConditionEvaluationResult.disabled("none of the touched pages changed");
+    }
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        context.getStore(NAMESPACE).put(context.getUniqueId(), System.nanoTime());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        long start = context.getStore(NAMESPACE).remove(context.getUniqueId(), long.class);
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        // the failed test records the duration of its reruns
+        if (FlakyTestExtension.isRerun(context)) return;
+
+        TestHistory.getInstance().record(testId(context.getRequiredTestClass(), context.getRequiredTestMethod()),
+                durationMillis, context.getExecutionException().isPresent());
+    }
+
+    public static String testId(Class<?> testClass, Method method) {
+        return testClass.getName() + "#" + method.getName();
+    }
+
+    private static TouchesPages touchedPages(AnnotatedElement method, Class<?> testClass) {
+        TouchesPages touchedPages = method.getAnnotation(TouchesPages.class);
+        return touchedPages != null ? touchedPages : testClass.getAnnotation(TouchesPages.class);
+    }
+}
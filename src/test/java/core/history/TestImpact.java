@@ -0,0 +1,112 @@
+package core.history;
+
+import config.ConfigurationManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Works out which page classes changed, either from the `impact.changed` configuration key (a comma separated
+ * list of class names or source paths) or from `git diff` against the ref given by `impact.baseRef`.
+ * A change to anything other than a concrete page under `pages.*` or a test class, the base page included,
+ * affects every test. Changes outside the sources and the build, like documentation, affect no test.
+ */
+public class TestImpact {
+    private static final Pattern PAGE_SOURCE = Pattern.compile("src/main/java/(pages/[a-z0-9_]+/[A-Za-z0-9_]+)\\.java");
+    private static final Pattern PAGE_CLASS = Pattern.compile("pages\\.[a-z0-9_]+\\.[A-Za-z0-9_]+");
+    private static final Pattern CLASS_NAME = Pattern.compile("([a-z0-9_]+\\.)*[A-Z][A-Za-z0-9_]*");
+    // test classes in the default package, tests in packages belong to the test infrastructure
+    private static final Pattern TEST_SOURCE = Pattern.compile("src/test/java/([A-Za-z0-9_]+)\\.java");
+
+    private final boolean enabled;
+    private final boolean affectsAll;
+    private final Set<String> changedPages;
+    private final Set<String> changedTests;
+
+    private TestImpact(boolean enabled, boolean affectsAll, Set<String> changedPages, Set<String> changedTests) {
+        this.enabled = enabled;
+        this.affectsAll = affectsAll;
+        this.changedPages = changedPages;
+        this.changedTests = changedTests;
+    }
+
+    /**
+     * Reads the changes from the `impact.*` configuration keys, impact selection is disabled when neither is set.
+     */
+    public static TestImpact fromConfiguration() {
+        List<String> changed = ConfigurationManager.getInstance().getImpactChanged();
+        if (!changed.isEmpty()) return of(Set.copyOf(changed));
+
+        String baseRef = ConfigurationManager.getInstance().getImpactBaseRef();
+        if (baseRef != null) return of(gitDiff(baseRef));
+
+        return new TestImpact(false, true, Set.of(), Set.of());
+    }
+
+    /**
+     * Works out the impact of a set of changes.
+     *
+     * @param changes the changed class names or source paths
+     */
+    public static TestImpact of(Set<String> changes) {
+        Set<String> changedPages = new HashSet<>();
+        Set<String> changedTests = new HashSet<>();
+        boolean affectsAll = false;
+
+        for (String change : changes) {
+            Matcher pageSource = PAGE_SOURCE.matcher(change);
+            Matcher testSource = TEST_SOURCE.matcher(change);
+
+            if (pageSource.matches()) {
+                changedPages.add(pageSource.group(1).replace('/', '.'));
+            } else if (PAGE_CLASS.matcher(change).matches()) {
+                changedPages.add(change);
+            } else if (testSource.matches()) {
+                changedTests.add(testSource.group(1));
+            } else if (change.startsWith("src/") || change.equals("pom.xml") || CLASS_NAME.matcher(change).matches()) {
+                // framework code, test infrastructure, the build or a class outside the concrete pages
+                affectsAll = true;
+            }
+        }
+        return new TestImpact(true, affectsAll, changedPages, changedTests);
+    }
+
+    /**
+     * Checks whether a test has to run.
+     *
+     * @param testClass    the test class
+     * @param touchedPages the pages the test declares, null if the test doesn't declare any
+     * @return true if the test is affected by the changes
+     */
+    public boolean isAffected(Class<?> testClass, TouchesPages touchedPages) {
+        if (!enabled || affectsAll || touchedPages == null || changedTests.contains(testClass.getName())) return true;
+
+        return Arrays.stream(touchedPages.value()).anyMatch(page -> changedPages.contains(page.getName()));
+    }
+
+    private static Set<String> gitDiff(String baseRef) {
+        try {
+            Process process = new ProcessBuilder("git", "diff", "--name-only", baseRef + "...HEAD").redirectErrorStream(true).start();
+            Set<String> changes;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                changes = reader.lines().map(String::trim).collect(Collectors.toSet());
+            }
+            if (process.waitFor() != 0) throw new IllegalStateException("git diff against " + baseRef + " failed: " + changes);
+            return changes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to run git diff against " + baseRef, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while running git diff", e);
+        }
+    }
+}
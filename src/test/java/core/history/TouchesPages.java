@@ -0,0 +1,20 @@
+package core.history;
+
+import pages.BasePage;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the pages a test class or method exercises. Test impact selection only runs the tests whose pages
+ * changed, tests without the annotation always run.
+ */
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface TouchesPages {
+    Class<? extends BasePage>[] value();
+}
@@ -0,0 +1,416 @@
+package core.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+import org.openqa.selenium.remote.DriverCommand;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * An in-process stand-in for an Appium server driving the Sauce Labs sample app, so the wait, retry, scroll and
+ * caching logic of the page objects can be tested in milliseconds without a device. The server speaks the W3C
+ * WebDriver protocol over HTTP on a free local port and serves the scripted screens of {@link MockSession}.
+ * <p>
+ * Device behaviour that makes the framework work for its money is scripted per server: latency on every command,
+ * a delay before a screen transition completes, elements that appear late and elements whose references go stale
+ * a number of times. Every command is counted, `mobile:` scripts under their own name.
+ * <pre>
+ * try (MockAppiumServer server = MockAppiumServer.start()) {
+ *     server.delayAppearance("//*[@content-desc='test-LOGIN']", Duration.ofMillis(300));
+ *     AppiumDriver driver = new AppiumDriver(server.getUrl(), new UiAutomator2Options());
+ * }
+ * </pre>
+ */
+public class MockAppiumServer implements AutoCloseable {
+    private static final String ELEMENT_KEY = "element-6066-11e4-a52e-4f735466cecf";
+    private static final Json JSON = new Json();
+
+    private static final int WINDOW_WIDTH = 1080;
+    private static final int WINDOW_HEIGHT = 2280;
+    // a transparent 1x1 PNG
+    private static final String SCREENSHOT = "iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==";
+
+    private final HttpServer httpServer;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, MockSession> sessions = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> commandCounts = new ConcurrentHashMap<>();
+    private final Map<String, Duration> appearanceDelays = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> staleReads = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> scriptFailures = new ConcurrentHashMap<>();
+    private final AtomicInteger createdSessions = new AtomicInteger();
+
+    private volatile Duration commandLatency = Duration.ZERO;
+    private volatile Duration transitionDelay = Duration.ZERO;
+    private volatile boolean appInstalled = true;
+
+    /**
+     * Thrown while handling a command to answer with a W3C error.
+     */
+    static class MockError extends RuntimeException {
+        private final String error;
+
+        MockError(String error, String message) {
+            super(message);
+            this.error = error;
+        }
+    }
+
+    static {
+        // the response headers and body are separate writes, with Nagle's algorithm every answer waits for a delayed ack
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private MockAppiumServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/", this::handle);
+        httpServer.setExecutor(executor);
+    }
+
+    /**
+     * Starts a server on a free local port, every request is handled on its own virtual thread.
+     */
+    public static MockAppiumServer start() throws IOException {
+        MockAppiumServer server = new MockAppiumServer();
+        server.httpServer.start();
+        return server;
+    }
+
+    public URL getUrl() {
+        try {
+            return URI.create("http://127.0.0.1:" + httpServer.getAddress().getPort() + "/").toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        httpServer.stop(0);
+        executor.shutdownNow();
+    }
+
+    // # scripted device behaviour
+    /**
+     * Delays the answer to every command, like the round trip to a real device does.
+     */
+    public void setCommandLatency(Duration latency) {
+        commandLatency = latency;
+    }
+
+    /**
+     * Delays every screen transition, the previous screen stays on display until the delay has passed.
+     */
+    public void setTransitionDelay(Duration delay) {
+        transitionDelay = delay;
+    }
+
+    /**
+     * Keeps the elements matching an xpath off the screen for a while after their screen has been shown.
+     */
+    public void delayAppearance(String xpath, Duration delay) {
+        appearanceDelays.put(xpath, delay);
+    }
+
+    /**
+     * Answers the next commands on elements matching an xpath with a stale element reference.
+     *
+     * @param xpath the xpath of the elements
+     * @param times the number of commands that fail
+     */
+    public void makeStale(String xpath, int times) {
+        staleReads.put(xpath, new AtomicInteger(times));
+    }
+
+    /**
+     * Answers the next runs of a `mobile:` script with an unknown server-side error, like a device that dropped off.
+     *
+     * @param script the name of the script, e.g. `mobile: queryAppState`
+     * @param times  the number of runs that fail
+     */
+    public void failScript(String script, int times) {
+        scriptFailures.put(script, new AtomicInteger(times));
+    }
+
+    /**
+     * Installs or removes the app, `mobile: installApp` installs it again.
+     */
+    public void setAppInstalled(boolean installed) {
+        appInstalled = installed;
+    }
+
+    public boolean isAppInstalled() {
+        return appInstalled;
+    }
+
+    // # statistics
+    /**
+     * Returns how often a command has been received.
+     *
+     * @param command a {@link DriverCommand} name, or the name of a `mobile:` script
+     */
+    public long getCommandCount(String command) {
+        LongAdder count = commandCounts.get(command);
+        return count == null ? 0 : count.sum();
+    }
+
+    public int getSessionCount() {
+        return createdSessions.get();
+    }
+
+    /**
+     * Returns the screen a session is on, see {@link MockSession#LOGIN_SCREEN} and {@link MockSession#PRODUCTS_SCREEN}.
+     */
+    public String getScreen(String sessionId) {
+        return session(sessionId).getScreen();
+    }
+
+    Duration getTransitionDelay() {
+        return transitionDelay;
+    }
+
+    Map<String, Duration> getAppearanceDelays() {
+        return appearanceDelays;
+    }
+
+    boolean consumeStaleRead(Predicate<String> matchesElement) {
+        for (Map.Entry<String, AtomicInteger> staleRead : staleReads.entrySet()) {
+            AtomicInteger remaining = staleRead.getValue();
+            if (remaining.get() > 0 && matchesElement.test(staleRead.getKey()) && remaining.getAndDecrement() > 0) return true;
+        }
+        return false;
+    }
+
+    // # protocol
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            int status = 200;
+            Object value;
+            try {
+                sleep(commandLatency);
+                String path = exchange.getRequestURI().getPath();
+                List<String> segments = Arrays.stream(path.split("/")).filter(segment -> !segment.isEmpty()).toList();
+                value = dispatch(exchange.getRequestMethod(), segments, readBody(exchange));
+            } catch (MockError e) {
+                status = statusOf(e.error);
+                value = Map.of("error", e.error, "message", e.getMessage(), "stacktrace", "");
+            } catch (RuntimeException e) {
+                status = 500;
+                value = Map.of("error", "unknown error", "message", String.valueOf(e), "stacktrace", "");
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("value", value);
+            StringBuilder json = new StringBuilder();
+            try (JsonOutput output = JSON.newOutput(json)) {
+                output.setPrettyPrint(false).write(response);
+            }
+            byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(bytes);
+            }
+        }
+    }
+
+    private Object dispatch(String method, List<String> segments, Map<String, Object> body) {
+        if (segments.equals(List.of("status"))) {
+            count(DriverCommand.STATUS);
+            return Map.of("ready", true, "message", "The mock Appium server is ready");
+        }
+        if (segments.isEmpty() || !segments.get(0).equals("session")) throw unknownCommand(method, segments);
+
+        if (segments.size() == 1 && method.equals("POST")) {
+            count(DriverCommand.NEW_SESSION);
+            return newSession();
+        }
+        if (segments.size() == 2 && method.equals("DELETE")) {
+            count(DriverCommand.QUIT);
+            if (sessions.remove(segments.get(1)) == null) throw invalidSession(segments.get(1));
+            return null;
+        }
+
+        MockSession session = session(segments.get(1));
+        String command = String.join("/", segments.subList(2, segments.size()));
+        if (segments.size() > 3 && segments.get(2).equals("element")) {
+            return dispatchElement(method, session, segments.get(3), String.join("/", segments.subList(4, segments.size())), body);
+        }
+
+        return switch (method + " " + command) {
+            case "POST timeouts" -> {
+                count(DriverCommand.SET_TIMEOUT);
+                yield null;
+            }
+            case "GET source" -> {
+                count(DriverCommand.GET_PAGE_SOURCE);
+                yield session.pageSource();
+            }
+            case "GET window/rect", "GET window/current/size" -> {
+                count(DriverCommand.GET_CURRENT_WINDOW_SIZE);
+                yield Map.of("x", 0, "y", 0, "width", WINDOW_WIDTH, "height", WINDOW_HEIGHT);
+            }
+            case "GET screenshot" -> {
+                count(DriverCommand.SCREENSHOT);
+                yield SCREENSHOT;
+            }
+            case "POST actions" -> {
+                count(DriverCommand.ACTIONS);
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> sequences = (List<Map<String, Object>>) body.get("actions");
+                session.performActions(sequences);
+                yield null;
+            }
+            case "DELETE actions" -> {
+                count(DriverCommand.CLEAR_ACTIONS_STATE);
+                yield null;
+            }
+            case "POST execute/sync" -> executeScript(session, body);
+            case "POST element" -> {
+                count(DriverCommand.FIND_ELEMENT);
+                List<String> ids = session.find(String.valueOf(body.get("using")), String.valueOf(body.get("value")));
+                if (ids.isEmpty()) {
+                    throw new MockError("no such element", "No element found with " + body.get("using") + " " + body.get("value"));
+                }
+                yield Map.of(ELEMENT_KEY, ids.get(0));
+            }
+            case "POST elements" -> {
+                count(DriverCommand.FIND_ELEMENTS);
+                yield session.find(String.valueOf(body.get("using")), String.valueOf(body.get("value"))).stream()
+                        .map(id -> Map.of(ELEMENT_KEY, id))
+                        .toList();
+            }
+            default -> throw unknownCommand(method, segments);
+        };
+    }
+
+    private Object dispatchElement(String method, MockSession session, String elementId, String command, Map<String, Object> body) {
+        if (command.startsWith("attribute/")) {
+            count(DriverCommand.GET_ELEMENT_ATTRIBUTE);
+            return session.getAttribute(elementId, command.substring("attribute/".length()));
+        }
+
+        return switch (method + " " + command) {
+            case "GET displayed" -> {
+                count(DriverCommand.IS_ELEMENT_DISPLAYED);
+                yield session.isDisplayed(elementId);
+            }
+            case "GET enabled" -> {
+                count(DriverCommand.IS_ELEMENT_ENABLED);
+                yield session.isEnabled(elementId);
+            }
+            case "GET text" -> {
+                count(DriverCommand.GET_ELEMENT_TEXT);
+                yield session.getText(elementId);
+            }
+            case "GET rect" -> {
+                count(DriverCommand.GET_ELEMENT_RECT);
+                yield session.getRect(elementId);
+            }
+            case "POST click" -> {
+                count(DriverCommand.CLICK_ELEMENT);
+                session.click(elementId);
+                yield null;
+            }
+            case "POST clear" -> {
+                count(DriverCommand.CLEAR_ELEMENT);
+                session.clear(elementId);
+                yield null;
+            }
+            case "POST value" -> {
+                count(DriverCommand.SEND_KEYS_TO_ELEMENT);
+                session.sendKeys(elementId, String.valueOf(body.get("text")));
+                yield null;
+            }
+            default -> throw new MockError("unknown command", "The mock server doesn't script " + method + " element/" + command);
+        };
+    }
+
+    private Object executeScript(MockSession session, Map<String, Object> body) {
+        String script = String.valueOf(body.get("script"));
+        count(DriverCommand.EXECUTE_SCRIPT);
+        if (!script.startsWith("mobile:")) throw new MockError("unknown command", "The mock server only runs mobile: scripts");
+
+        count(script);
+        AtomicInteger failures = scriptFailures.get(script);
+        if (failures != null && failures.getAndDecrement() > 0) {
+            throw new MockError("unknown error", "The mock device failed to run " + script);
+        }
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> args = (List<Map<String, Object>>) body.getOrDefault("args", List.of());
+        return session.executeMobile(script, args.isEmpty() ? Map.of() : args.get(0));
+    }
+
+    private Map<String, Object> newSession() {
+        String sessionId = UUID.randomUUID().toString();
+        sessions.put(sessionId, new MockSession(this, sessionId));
+        createdSessions.incrementAndGet();
+        return Map.of("sessionId", sessionId, "capabilities", Map.of(
+                "platformName", "Android",
+                "appium:automationName", "UiAutomator2",
+                "appium:deviceName", "mock-" + createdSessions.get()));
+    }
+
+    private MockSession session(String sessionId) {
+        MockSession session = sessions.get(sessionId);
+        if (session == null) throw invalidSession(sessionId);
+        return session;
+    }
+
+    private void count(String command) {
+        commandCounts.computeIfAbsent(command, key -> new LongAdder()).increment();
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            String body = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            return body.isBlank() ? Map.of() : JSON.toType(body, Json.MAP_TYPE);
+        }
+    }
+
+    private static int statusOf(String error) {
+        return switch (error) {
+            case "no such element", "stale element reference", "unknown command", "invalid session id" -> 404;
+            case "invalid selector", "invalid argument", "invalid element state" -> 400;
+            default -> 500;
+        };
+    }
+
+    private static MockError unknownCommand(String method, List<String> segments) {
+        return new MockError("unknown command", "The mock server doesn't script " + method + " /" + String.join("/", segments));
+    }
+
+    private static MockError invalidSession(String sessionId) {
+        return new MockError("invalid session id", "No active session " + sessionId);
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) return;
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
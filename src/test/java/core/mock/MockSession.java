@@ -0,0 +1,525 @@
+package core.mock;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One session on the {@link MockAppiumServer}: the screen of the Sauce Labs sample app on display, the element ids
+ * handed out for it and the scroll position of its scrollable container. The login form, the autofill buttons and
+ * the deep link to the products screen behave like in the real app.
+ * <p>
+ * Elements that are hidden, still waiting for their scripted appearance or scrolled out of the scrollable container
+ * are left out of the page source and can't be found, like UiAutomator2 leaves out views that aren't on the screen.
+ * Element ids turn stale when the screen changes.
+ */
+class MockSession {
+    static final String LOGIN_SCREEN = "login";
+    static final String PRODUCTS_SCREEN = "products";
+
+    static final String PASSWORD = "secret_sauce";
+    static final Set<String> USERS = Set.of("standard_user", "locked_out_user", "problem_user");
+    private static final String PRODUCTS_DEEP_LINK = "swaglabs://swag-overview/";
+
+    // app states reported by `mobile: queryAppState`
+    private static final long NOT_INSTALLED = 0;
+    private static final long NOT_RUNNING = 1;
+    private static final long RUNNING_IN_FOREGROUND = 4;
+
+    private static final char PASSWORD_MASK = '•';
+    private static final Pattern BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final Pattern UI_SELECTOR_CALL = Pattern.compile("\\.(\\w+)\\((?:\"((?:[^\"\\\\]|\\\\.)*)\"|(true|false))\\)");
+
+    private final MockAppiumServer server;
+    private final String id;
+    // the default implementation, looking one up scans the whole classpath
+    private final XPath xPath = XPathFactory.newDefaultInstance().newXPath();
+
+    private String screen;
+    private Document document;
+    private long screenShownAtNanos;
+    private int generation;
+    private String pendingScreen;
+    private long pendingScreenAtNanos;
+    private long appState = RUNNING_IN_FOREGROUND;
+
+    private final Map<String, Element> elementsById = new HashMap<>();
+    private final Map<Element, String> idsByElement = new IdentityHashMap<>();
+    private final Map<Element, int[]> baseBounds = new IdentityHashMap<>();
+    private final Map<Element, Boolean> baseDisplayed = new IdentityHashMap<>();
+    private final Map<Element, String> values = new IdentityHashMap<>();
+    private Element focusedElement;
+
+    private Element scrollable;
+    private int scrollOffset;
+    private int maxScrollOffset;
+
+    MockSession(MockAppiumServer server, String id) {
+        this.server = server;
+        this.id = id;
+        show(LOGIN_SCREEN);
+    }
+
+    String getId() {
+        return id;
+    }
+
+    synchronized String getScreen() {
+        applyPendingTransition();
+        return screen;
+    }
+
+    // # page source
+    synchronized String pageSource() {
+        layout();
+        StringBuilder source = new StringBuilder("<?xml version='1.0' encoding='UTF-8' standalone='yes' ?>\n");
+        serialize(document.getDocumentElement(), source, 0);
+        return source.toString();
+    }
+
+    // # element lookup
+    synchronized List<String> find(String using, String value) {
+        layout();
+        String xpath = toXPath(using, value);
+        try {
+            return evaluate(xpath).stream().filter(MockSession::isDisplayed).map(this::idOf).toList();
+        } catch (IllegalArgumentException e) {
+            throw new MockAppiumServer.MockError("invalid selector", e.getMessage());
+        }
+    }
+
+    // # element commands
+    synchronized boolean isDisplayed(String elementId) {
+        return isDisplayed(element(elementId));
+    }
+
+    synchronized boolean isEnabled(String elementId) {
+        return Boolean.parseBoolean(element(elementId).getAttribute("enabled"));
+    }
+
+    synchronized String getText(String elementId) {
+        return element(elementId).getAttribute("text");
+    }
+
+    synchronized String getAttribute(String elementId, String name) {
+        Element element = element(elementId);
+        if (name.equals("content-desc") || name.equals("contentDescription")) return element.getAttribute("content-desc");
+        return element.hasAttribute(name) ? element.getAttribute(name) : null;
+    }
+
+    synchronized Map<String, Object> getRect(String elementId) {
+        int[] bounds = parseBounds(element(elementId).getAttribute("bounds"));
+        return Map.of("x", bounds[0], "y", bounds[1], "width", bounds[2] - bounds[0], "height", bounds[3] - bounds[1]);
+    }
+
+    synchronized void click(String elementId) {
+        Element element = element(elementId);
+        if (element.getTagName().equals("android.widget.EditText")) focusedElement = element;
+
+        switch (element.getAttribute("content-desc")) {
+            case "test-LOGIN" -> login();
+            case "test-standard_user" -> autofill("standard_user");
+            case "test-locked_out_user" -> autofill("locked_out_user");
+            case "test-problem_user" -> autofill("problem_user");
+            default -> {
+                // nothing is scripted for the element
+            }
+        }
+    }
+
+    synchronized void clear(String elementId) {
+        setValue(element(elementId), "");
+    }
+
+    synchronized void sendKeys(String elementId, String text) {
+        Element element = element(elementId);
+        focusedElement = element;
+        setValue(element, values.getOrDefault(element, "") + text);
+    }
+
+    // # mobile commands
+    synchronized Object executeMobile(String command, Map<String, Object> arguments) {
+        applyPendingTransition();
+        return switch (command) {
+            case "mobile: queryAppState" -> server.isAppInstalled() ? appState : NOT_INSTALLED;
+            case "mobile: isAppInstalled" -> server.isAppInstalled();
+            case "mobile: installApp" -> {
+                server.setAppInstalled(true);
+                yield null;
+            }
+            case "mobile: changePermissions" -> null;
+            case "mobile: terminateApp" -> {
+                appState = NOT_RUNNING;
+                yield true;
+            }
+            case "mobile: activateApp" -> {
+                if (appState == NOT_RUNNING) show(screen);
+                appState = RUNNING_IN_FOREGROUND;
+                yield null;
+            }
+            case "mobile: clearApp" -> {
+                appState = NOT_RUNNING;
+                show(LOGIN_SCREEN);
+                yield true;
+            }
+            case "mobile: deepLink" -> {
+                if (!PRODUCTS_DEEP_LINK.equals(arguments.get("url"))) {
+                    throw new MockAppiumServer.MockError("invalid argument", "No screen handles " + arguments.get("url"));
+                }
+                transitionTo(PRODUCTS_SCREEN);
+                yield null;
+            }
+            case "mobile: replaceElementValue" -> {
+                setValue(element(String.valueOf(arguments.get("elementId"))), String.valueOf(arguments.get("text")));
+                yield null;
+            }
+            case "mobile: type" -> {
+                if (focusedElement == null) throw new MockAppiumServer.MockError("invalid element state", "No field is focused");
+                setValue(focusedElement, values.getOrDefault(focusedElement, "") + arguments.get("text"));
+                yield null;
+            }
+            case "mobile: scrollGesture" -> scrollGesture(arguments);
+            default -> throw new MockAppiumServer.MockError("unknown command", "The mock server doesn't script " + command);
+        };
+    }
+
+    /**
+     * Scrolls the container by the distance the finger of a W3C pointer sequence travels vertically.
+     */
+    synchronized void performActions(List<Map<String, Object>> sequences) {
+        applyPendingTransition();
+        for (Map<String, Object> sequence : sequences) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> actions = (List<Map<String, Object>>) sequence.get("actions");
+
+            Number startY = null;
+            Number endY = null;
+            for (Map<String, Object> action : actions) {
+                if (!"pointerMove".equals(action.get("type"))) continue;
+                if (startY == null) startY = (Number) action.get("y");
+                endY = (Number) action.get("y");
+            }
+            if (startY != null) scrollBy(startY.intValue() - endY.intValue());
+            // every finger moves the same content, one of them is enough
+            return;
+        }
+    }
+
+    private Object scrollGesture(Map<String, Object> arguments) {
+        if (scrollable == null) throw new MockAppiumServer.MockError("invalid argument", "Nothing to scroll on the " + screen + " screen");
+
+        double percent = ((Number) arguments.get("percent")).doubleValue();
+        int distance = (int) (percent * ((Number) arguments.get("height")).intValue());
+        boolean down = "down".equals(arguments.get("direction"));
+
+        scrollBy(down ? distance : -distance);
+        return down ? scrollOffset < maxScrollOffset : scrollOffset > 0;
+    }
+
+    private void scrollBy(int distance) {
+        scrollOffset = Math.max(0, Math.min(maxScrollOffset, scrollOffset + distance));
+    }
+
+    // # screens
+    private void login() {
+        String username = values.getOrDefault(byContentDesc("test-Username"), "");
+        String password = values.getOrDefault(byContentDesc("test-Password"), "");
+
+        String error;
+        if (username.isEmpty()) {
+            error = "Username is required";
+        } else if (password.isEmpty()) {
+            error = "Password is required";
+        } else if (!USERS.contains(username) || !PASSWORD.equals(password)) {
+            error = "Username and password do not match any user in this service.";
+        } else if (username.equals("locked_out_user")) {
+            error = "Sorry, this user has been locked out.";
+        } else {
+            error = null;
+        }
+
+        if (error == null) {
+            transitionTo(PRODUCTS_SCREEN);
+            return;
+        }
+        Element errorMessage = byContentDesc("test-Error message");
+        baseDisplayed.put(errorMessage, true);
+        ((Element) errorMessage.getElementsByTagName("android.widget.TextView").item(0)).setAttribute("text", error);
+    }
+
+    private void autofill(String username) {
+        setValue(byContentDesc("test-Username"), username);
+        setValue(byContentDesc("test-Password"), PASSWORD);
+    }
+
+    private void transitionTo(String target) {
+        Duration delay = server.getTransitionDelay();
+        if (delay.isZero()) {
+            show(target);
+            return;
+        }
+        pendingScreen = target;
+        pendingScreenAtNanos = System.nanoTime() + delay.toNanos();
+    }
+
+    private void applyPendingTransition() {
+        if (pendingScreen != null && System.nanoTime() >= pendingScreenAtNanos) {
+            String target = pendingScreen;
+            pendingScreen = null;
+            show(target);
+        }
+    }
+
+    private void show(String target) {
+        document = load(target);
+        screen = target;
+        screenShownAtNanos = System.nanoTime();
+        generation++;
+
+        elementsById.clear();
+        idsByElement.clear();
+        baseBounds.clear();
+        baseDisplayed.clear();
+        values.clear();
+        focusedElement = null;
+        scrollable = null;
+        scrollOffset = 0;
+
+        NodeList nodes = document.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            if (element.hasAttribute("bounds")) baseBounds.put(element, parseBounds(element.getAttribute("bounds")));
+            baseDisplayed.put(element, !"false".equals(element.getAttribute("displayed")));
+            if (scrollable == null && "true".equals(element.getAttribute("scrollable"))) scrollable = element;
+        }
+
+        if (scrollable != null) {
+            int[] area = baseBounds.get(scrollable);
+            int contentBottom = area[3];
+            for (Map.Entry<Element, int[]> bounds : baseBounds.entrySet()) {
+                if (isDescendant(bounds.getKey(), scrollable)) contentBottom = Math.max(contentBottom, bounds.getValue()[3]);
+            }
+            maxScrollOffset = contentBottom - area[3];
+        }
+    }
+
+    private static Document load(String screen) {
+        try (InputStream inputStream = MockSession.class.getClassLoader().getResourceAsStream("mock/" + screen + ".xml")) {
+            if (inputStream == null) throw new IllegalStateException("Missing mock screen " + screen);
+
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newDefaultInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            return factory.newDocumentBuilder().parse(inputStream);
+        } catch (IOException | ParserConfigurationException | SAXException e) {
+            throw new IllegalStateException("Failed to load the mock screen " + screen, e);
+        }
+    }
+
+    // # layout
+    /**
+     * Moves the content of the scrollable container by the scroll offset and works out which elements are on the
+     * screen, which is written to the `bounds` and `displayed` attributes.
+     */
+    private void layout() {
+        applyPendingTransition();
+
+        Set<Element> appearing = java.util.Collections.newSetFromMap(new IdentityHashMap<>());
+        long shownForNanos = System.nanoTime() - screenShownAtNanos;
+        server.getAppearanceDelays().forEach((xpath, delay) -> {
+            if (shownForNanos < delay.toNanos()) appearing.addAll(evaluate(xpath));
+        });
+
+        layout(document.getDocumentElement(), true, false, appearing);
+    }
+
+    private void layout(Element element, boolean parentDisplayed, boolean insideScrollable, Set<Element> appearing) {
+        int[] bounds = baseBounds.get(element);
+        boolean displayed = parentDisplayed && baseDisplayed.getOrDefault(element, true) && !appearing.contains(element);
+
+        if (bounds != null && insideScrollable) {
+            bounds = new int[]{bounds[0], bounds[1] - scrollOffset, bounds[2], bounds[3] - scrollOffset};
+            int[] area = baseBounds.get(scrollable);
+            displayed &= bounds[3] > area[1] && bounds[1] < area[3];
+        }
+        if (bounds != null) element.setAttribute("bounds", "[" + bounds[0] + "," + bounds[1] + "][" + bounds[2] + "," + bounds[3] + "]");
+        element.setAttribute("displayed", String.valueOf(displayed));
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) {
+                layout(childElement, displayed, insideScrollable || element == scrollable, appearing);
+            }
+        }
+    }
+
+    private static void serialize(Element element, StringBuilder source, int depth) {
+        if ("false".equals(element.getAttribute("displayed"))) return;
+
+        source.append("  ".repeat(depth)).append('<').append(element.getTagName());
+        for (int i = 0; i < element.getAttributes().getLength(); i++) {
+            Node attribute = element.getAttributes().item(i);
+            source.append(' ').append(attribute.getNodeName()).append("=\"").append(escape(attribute.getNodeValue())).append('"');
+        }
+
+        List<Element> children = new ArrayList<>();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element childElement) children.add(childElement);
+        }
+        if (children.isEmpty()) {
+            source.append(" />\n");
+            return;
+        }
+
+        source.append(">\n");
+        for (Element child : children) {
+            serialize(child, source, depth + 1);
+        }
+        source.append("  ".repeat(depth)).append("</").append(element.getTagName()).append(">\n");
+    }
+
+    // # elements
+    private Element element(String elementId) {
+        layout();
+        Element element = elementsById.get(elementId);
+        if (element == null || server.consumeStaleRead(xpath -> evaluate(xpath).contains(element))) {
+            throw new MockAppiumServer.MockError("stale element reference", "The element " + elementId + " is not attached to the screen anymore");
+        }
+        return element;
+    }
+
+    private String idOf(Element element) {
+        return idsByElement.computeIfAbsent(element, key -> {
+            String elementId = id + "-" + generation + "-" + idsByElement.size();
+            elementsById.put(elementId, key);
+            return elementId;
+        });
+    }
+
+    private void setValue(Element element, String value) {
+        values.put(element, value);
+        if (value.isEmpty()) {
+            element.setAttribute("text", element.getAttribute("hint"));
+        } else if ("true".equals(element.getAttribute("password"))) {
+            element.setAttribute("text", String.valueOf(PASSWORD_MASK).repeat(value.length()));
+        } else {
+            element.setAttribute("text", value);
+        }
+    }
+
+    private Element byContentDesc(String contentDesc) {
+        List<Element> matches = evaluate("//*[@content-desc='" + contentDesc + "']");
+        if (matches.isEmpty()) throw new IllegalStateException("The " + screen + " screen has no " + contentDesc);
+        return matches.get(0);
+    }
+
+    private List<Element> evaluate(String xpath) {
+        try {
+            NodeList nodes = (NodeList) xPath.evaluate(xpath, document, XPathConstants.NODESET);
+            List<Element> elements = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                if (nodes.item(i) instanceof Element element) elements.add(element);
+            }
+            return elements;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Invalid xpath " + xpath, e);
+        }
+    }
+
+    private static boolean isDisplayed(Element element) {
+        return "true".equals(element.getAttribute("displayed"));
+    }
+
+    private static boolean isDescendant(Element element, Element ancestor) {
+        for (Node parent = element.getParentNode(); parent != null; parent = parent.getParentNode()) {
+            if (parent == ancestor) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Translates a locator into an xpath over the screen. UiSelectors are supported as far as a single selector of
+     * text, description, class name and resource id conditions goes.
+     */
+    static String toXPath(String using, String value) {
+        return switch (using) {
+            case "xpath" -> value;
+            case "accessibility id" -> "//*[@content-desc=" + quote(value) + "]";
+            case "id" -> "//*[@resource-id=" + quote(value) + "]";
+            case "class name" -> "//" + value;
+            case "-android uiautomator" -> uiSelectorToXPath(value);
+            default -> throw new MockAppiumServer.MockError("invalid selector", "Unsupported locator strategy " + using);
+        };
+    }
+
+    private static String uiSelectorToXPath(String selector) {
+        String prefix = "new UiSelector()";
+        if (!selector.startsWith(prefix)) {
+            throw new MockAppiumServer.MockError("invalid selector", "The mock server only supports plain UiSelectors: " + selector);
+        }
+
+        String nodeTest = "*";
+        List<String> conditions = new ArrayList<>();
+        Matcher call = UI_SELECTOR_CALL.matcher(selector);
+        int position = prefix.length();
+        String child = "";
+        while (position < selector.length()) {
+            // the child selector matches the descendants of this one and closes the selector
+            String childCall = ".childSelector(";
+            if (selector.startsWith(childCall, position) && selector.endsWith(")")) {
+                child = uiSelectorToXPath(selector.substring(position + childCall.length(), selector.length() - 1));
+                break;
+            }
+            if (!call.find(position) || call.start() != position) {
+                throw new MockAppiumServer.MockError("invalid selector", "Unsupported UiSelector " + selector);
+            }
+            String argument = call.group(2) != null ? call.group(2).replace("\\\"", "\"").replace("\\\\", "\\") : call.group(3);
+            switch (call.group(1)) {
+                case "className" -> nodeTest = argument;
+                case "text" -> conditions.add("@text=" + quote(argument));
+                case "textContains" -> conditions.add("contains(@text, " + quote(argument) + ")");
+                case "description" -> conditions.add("@content-desc=" + quote(argument));
+                case "descriptionContains" -> conditions.add("contains(@content-desc, " + quote(argument) + ")");
+                case "resourceId" -> conditions.add("@resource-id=" + quote(argument));
+                case "scrollable", "clickable", "enabled" -> conditions.add("@" + call.group(1) + "=" + quote(argument));
+                default -> throw new MockAppiumServer.MockError("invalid selector", "Unsupported UiSelector method " + call.group(1));
+            }
+            position = call.end();
+        }
+        return "//" + nodeTest + (conditions.isEmpty() ? "" : "[" + String.join(" and ", conditions) + "]") + child;
+    }
+
+    private static String quote(String value) {
+        return value.contains("'") ? "\"" + value + "\"" : "'" + value + "'";
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    private static int[] parseBounds(String bounds) {
+        Matcher matcher = BOUNDS.matcher(bounds);
+        if (!matcher.matches()) throw new IllegalStateException("Invalid bounds " + bounds);
+        return new int[]{Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+                Integer.parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4))};
+    }
+}
@@ -0,0 +1,247 @@
+package core.reporting;
+
+import config.ConfigurationManager;
+import core.App;
+import core.AppExtension;
+import core.FlakyTestExtension;
+import core.TestScope;
+import core.devices.Device;
+import core.metrics.Metrics;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonOutput;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Streams the progress of a run to the file given by the `events.file` configuration key while the run goes on,
+ * one JSON object per line and event, flushed as it happens:
+ * <ul>
+ *     <li>`run_started`, with the number of planned tests</li>
+ *     <li>`test_started`, `test_skipped` and `test_finished`, with the device, status, duration and failure</li>
+ *     <li>`step`, every page helper call of a test, see {@link Metrics.StepListener}</li>
+ *     <li>`retry`, every rerun of a test, see {@link FlakyTestExtension}</li>
+ *     <li>`run_finished`</li>
+ * </ul>
+ * Finish events carry the progress of the run: the running and queued tests, the finished tests per minute of every
+ * device over the last `events.throughputWindowSeconds`, and the ETA at that pace. A slow device shows up as a low
+ * throughput, a stuck test as a stream of steps without a finish.
+ * <p>
+ * Registered with the JUnit platform launcher in `META-INF/services`, `tail -f` the file to follow a run.
+ */
+public class StreamingReporter implements TestExecutionListener {
+    private static final Logger LOGGER = Logger.getLogger(StreamingReporter.class.getName());
+    private static final Json JSON = new Json();
+
+    private final Path file;
+    private final Duration throughputWindow;
+    private final Metrics.StepListener stepListener = this::step;
+
+    // guarded by this
+    private Writer writer;
+    private Throughput throughput;
+    private long plannedTests;
+    private long startedTests;
+    private long finishedTests;
+    private long skippedTests;
+    private final Map<String, Long> startNanosById = new HashMap<>();
+    private final Map<String, String> deviceById = new HashMap<>();
+    private final Map<String, TestIdentifier> runningByDevice = new HashMap<>();
+
+    public StreamingReporter() {
+        this(ConfigurationManager.getInstance().getEventsFile(), ConfigurationManager.getInstance().getThroughputWindow());
+    }
+
+    StreamingReporter(Path file, Duration throughputWindow) {
+        this.file = file;
+        this.throughputWindow = throughputWindow;
+    }
+
+    @Override
+    public synchronized void testPlanExecutionStarted(TestPlan testPlan) {
+        try {
+            if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+            writer = Files.newBufferedWriter(file);
+        } catch (IOException e) {
+            LOGGER.info("Failed to open the event stream " + file + ", no events are written: " + e.getMessage());
+            return;
+        }
+        throughput = new Throughput(throughputWindow, System.nanoTime());
+        plannedTests = testPlan.countTestIdentifiers(TestIdentifier::isTest);
+        Metrics.addStepListener(stepListener);
+
+        Map<String, Object> event = event("run_started");
+        event.put("plannedTests", plannedTests);
+        write(event);
+    }
+
+    @Override
+    public synchronized void testPlanExecutionFinished(TestPlan testPlan) {
+        Metrics.removeStepListener(stepListener);
+        if (writer == null) return;
+
+        Map<String, Object> event = event("run_finished");
+        event.put("progress", progress());
+        write(event);
+        try {
+            writer.close();
+        } catch (IOException e) {
+            LOGGER.info("Failed to close the event stream " + file + ": " + e.getMessage());
+        }
+        writer = null;
+    }
+
+    @Override
+    public synchronized void executionStarted(TestIdentifier testIdentifier) {
+        if (writer == null || !testIdentifier.isTest()) return;
+
+        startedTests++;
+        startNanosById.put(testIdentifier.getUniqueId(), System.nanoTime());
+        write(testEvent("test_started", testIdentifier));
+    }
+
+    @Override
+    public synchronized void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        if (writer == null || !testIdentifier.isTest()) return;
+
+        skippedTests++;
+        Map<String, Object> event = testEvent("test_skipped", testIdentifier);
+        event.put("reason", reason);
+        write(event);
+    }
+
+    @Override
+    public synchronized void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        if (writer == null || !testIdentifier.isTest()) return;
+
+        long now = System.nanoTime();
+        finishedTests++;
+        Long start = startNanosById.remove(testIdentifier.getUniqueId());
+        String device = deviceById.remove(testIdentifier.getUniqueId());
+        if (device != null) {
+            runningByDevice.remove(device, testIdentifier);
+            throughput.recordFinish(device, now);
+        }
+
+        Map<String, Object> event = testEvent("test_finished", testIdentifier);
+        event.put("device", device);
+        event.put("status", testExecutionResult.getStatus().name());
+        event.put("durationMillis", start == null ? null : (now - start) / 1_000_000);
+        testExecutionResult.getThrowable().ifPresent(failure -> event.put("failure", failure.toString()));
+        event.put("progress", progress());
+        write(event);
+    }
+
+    @Override
+    public synchronized void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+        if (writer == null || !testIdentifier.isTest()) return;
+
+        Map<String, String> values = entry.getKeyValuePairs();
+        String device = values.get(AppExtension.DEVICE_ENTRY);
+        if (device != null) {
+            // a rerun may move the test to another device
+            String previous = deviceById.put(testIdentifier.getUniqueId(), device);
+            if (previous != null) runningByDevice.remove(previous, testIdentifier);
+            runningByDevice.put(device, testIdentifier);
+        }
+
+        if (values.containsKey(FlakyTestExtension.RETRY_ENTRY)) {
+            Map<String, Object> event = testEvent("retry", testIdentifier);
+            event.put("device", device);
+            event.put("attempt", Integer.parseInt(values.get(FlakyTestExtension.RETRY_ENTRY)));
+            event.put("failureKind", values.get(FlakyTestExtension.KIND_ENTRY));
+            write(event);
+        }
+    }
+
+    /**
+     * Writes a page helper call of the running test, called on the thread of the test.
+     */
+    private void step(String page, String helper, String locator, long nanos) {
+        App app = TestScope.current();
+        Device device = app == null ? null : app.getDevice();
+        if (device == null) return;
+
+        synchronized (this) {
+            TestIdentifier testIdentifier = runningByDevice.get(device.udid());
+            if (writer == null || testIdentifier == null) return;
+
+            Map<String, Object> event = testEvent("step", testIdentifier);
+            event.put("device", device.udid());
+            event.put("page", page);
+            event.put("helper", helper);
+            event.put("locator", locator);
+            event.put("durationMillis", nanos / 1_000_000.0);
+            write(event);
+        }
+    }
+
+    private Map<String, Object> progress() {
+        Map<String, Double> testsPerMinute = throughput.testsPerMinute(System.nanoTime());
+        long running = startedTests - finishedTests;
+        long queued = Math.max(0, plannedTests - startedTests - skippedTests);
+        Duration eta = Throughput.eta(running + queued, testsPerMinute);
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("finished", finishedTests);
+        progress.put("skipped", skippedTests);
+        progress.put("running", running);
+        progress.put("queued", queued);
+        progress.put("testsPerMinute", testsPerMinute);
+        progress.put("etaSeconds", eta == null ? null : eta.toSeconds());
+        return progress;
+    }
+
+    private static Map<String, Object> testEvent(String type, TestIdentifier testIdentifier) {
+        Map<String, Object> event = event(type);
+        event.put("test", testId(testIdentifier));
+        return event;
+    }
+
+    private static Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("time", Instant.now().toString());
+        event.put("event", type);
+        return event;
+    }
+
+    /**
+     * Returns the id the other reports use for a test, `<class name>#<method name>`, or the display name of a test
+     * that isn't a method.
+     */
+    private static String testId(TestIdentifier testIdentifier) {
+        return testIdentifier.getSource()
+                .filter(MethodSource.class::isInstance)
+                .map(MethodSource.class::cast)
+                .map(source -> source.getClassName() + "#" + source.getMethodName())
+                .orElse(testIdentifier.getDisplayName());
+    }
+
+    // guarded by this
+    private void write(Map<String, Object> event) {
+        StringBuilder line = new StringBuilder();
+        try (JsonOutput output = JSON.newOutput(line)) {
+            output.setPrettyPrint(false).write(event);
+        }
+        try {
+            writer.write(line.append('\n').toString());
+            writer.flush();
+        } catch (IOException e) {
+            LOGGER.info("Failed to write to the event stream " + file + ": " + e.getMessage());
+        }
+    }
+}
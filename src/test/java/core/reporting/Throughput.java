@@ -0,0 +1,70 @@
+package core.reporting;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The rolling throughput of a run, finished tests per minute per device over a sliding window, and the ETA of the
+ * tests that are left at that pace. Not thread-safe, the {@link StreamingReporter} calls it under its lock.
+ */
+public class Throughput {
+    private final long windowNanos;
+    private final long startNanos;
+    private final Map<String, Deque<Long>> finishesByDevice = new TreeMap<>();
+
+    /**
+     * @param window     the sliding window the throughput is measured over
+     * @param startNanos the time the run started at, from {@link System#nanoTime()}
+     */
+    public Throughput(Duration window, long startNanos) {
+        this.windowNanos = window.toNanos();
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Records a finished test.
+     *
+     * @param device the udid of the device that ran the test
+     * @param nanos  the time the test finished at, from {@link System#nanoTime()}
+     */
+    public void recordFinish(String device, long nanos) {
+        finishesByDevice.computeIfAbsent(device, key -> new ArrayDeque<>()).addLast(nanos);
+    }
+
+    /**
+     * Returns the finished tests per minute of every device within the window, a device that went quiet drops to 0.
+     *
+     * @param nanos the current time, from {@link System#nanoTime()}
+     */
+    public Map<String, Double> testsPerMinute(long nanos) {
+        // the window can't reach back before the run started
+        double windowMinutes = Math.max(1, Math.min(windowNanos, nanos - startNanos)) / 60e9;
+
+        Map<String, Double> testsPerMinute = new LinkedHashMap<>();
+        finishesByDevice.forEach((device, finishes) -> {
+            while (!finishes.isEmpty() && nanos - finishes.peekFirst() > windowNanos) {
+                finishes.removeFirst();
+            }
+            testsPerMinute.put(device, finishes.size() / windowMinutes);
+        });
+        return testsPerMinute;
+    }
+
+    /**
+     * Returns the time the tests that are left take at the current pace of all devices together.
+     *
+     * @param remainingTests the tests that are queued or running
+     * @param testsPerMinute the current throughput per device, see {@link #testsPerMinute(long)}
+     * @return the ETA, null while no test has finished within the window
+     */
+    public static Duration eta(long remainingTests, Map<String, Double> testsPerMinute) {
+        double total = testsPerMinute.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (remainingTests == 0) return Duration.ZERO;
+        if (total == 0) return null;
+        return Duration.ofMillis(Math.round(remainingTests / total * 60_000));
+    }
+}